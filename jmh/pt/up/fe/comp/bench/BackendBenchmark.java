@@ -0,0 +1,84 @@
+package pt.up.fe.comp.bench;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.up.fe.comp.JmmAnalyser;
+import pt.up.fe.comp.SimpleParser;
+import pt.up.fe.comp.jasmin.JasminEmitter;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.jasmin.JasminUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.ollir.JmmOptimizer;
+
+/**
+ * OLLIR generation, OLLIR parsing, Jasmin generation and assembly. Only uses inputs without semantic errors, the
+ * backend does not run for the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendBenchmark {
+
+    @Param({ "Life", "TicTacToe", "synthetic-10", "synthetic-100", "synthetic-400" })
+    public String input;
+
+    private final Map<String, String> config = Collections.emptyMap();
+
+    private JmmSemanticsResult semanticsResult;
+    private String ollirCode;
+    private OllirResult ollirResult;
+    private JasminResult jasminResult;
+
+    @Setup
+    public void setup() {
+        var parserResult = new SimpleParser().parse(BenchmarkInputs.get(input), config);
+        semanticsResult = new JmmAnalyser().semanticAnalysis(parserResult);
+
+        if (semanticsResult.getReports().stream().anyMatch(report -> report.getType() == ReportType.ERROR)) {
+            throw new RuntimeException("Benchmark input '" + input + "' has errors: " + semanticsResult.getReports());
+        }
+
+        ollirResult = new JmmOptimizer().toOllir(semanticsResult);
+        ollirCode = ollirResult.getOllirCode();
+        jasminResult = new JasminEmitter().toJasmin(ollirResult);
+    }
+
+    @Benchmark
+    public OllirResult toOllir() {
+        return new JmmOptimizer().toOllir(semanticsResult);
+    }
+
+    @Benchmark
+    public OllirResult parseOllir() {
+        return new OllirResult(ollirCode, config);
+    }
+
+    @Benchmark
+    public JasminResult toJasmin() {
+        return new JasminEmitter().toJasmin(ollirResult);
+    }
+
+    @Benchmark
+    public byte[] assemble() {
+        return JasminUtils.assemble(jasminResult.getJasminCode(), jasminResult.getClassName() + ".j");
+    }
+}
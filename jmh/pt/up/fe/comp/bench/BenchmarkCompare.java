@@ -0,0 +1,101 @@
+package pt.up.fe.comp.bench;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+/**
+ * Compares two JMH result files in JSON format, e.g. a stored baseline and the results of the current tree.
+ *
+ * <p>
+ * Usage: BenchmarkCompare baseline.json results.json [threshold%]
+ *
+ * <p>
+ * Prints the change of every benchmark present in both files and exits with status 1 if any of them got slower by more
+ * than the threshold (default 10%). Assumes lower scores are better, as in the average time mode used by the
+ * benchmarks.
+ */
+public class BenchmarkCompare {
+
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchmarkCompare <baseline.json> <results.json> [threshold%]");
+            System.exit(2);
+        }
+
+        var baseline = readScores(new File(args[0]));
+        var current = readScores(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        int regressions = 0;
+        for (var entry : current.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(String.format("%-70s %12s -> %12.3f  (new)", entry.getKey(), "-",
+                        entry.getValue()));
+                continue;
+            }
+
+            double change = (entry.getValue() - before) / before * 100;
+            boolean regression = change > threshold;
+            if (regression) {
+                regressions++;
+            }
+
+            System.out.println(String.format("%-70s %12.3f -> %12.3f  %+7.1f%%%s", entry.getKey(), before,
+                    entry.getValue(), change, regression ? "  REGRESSION" : ""));
+        }
+
+        for (var name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.println(String.format("%-70s  (missing)", name));
+            }
+        }
+
+        System.out.println(regressions + " regression(s) above " + threshold + "%");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param jsonFile
+     * @return the primary score of each benchmark, by benchmark name and parameters
+     */
+    static Map<String, Double> readScores(File jsonFile) {
+        if (!jsonFile.isFile()) {
+            throw new RuntimeException("Could not find benchmark results '" + jsonFile + "'");
+        }
+
+        Map<String, Double> scores = new TreeMap<>();
+        for (JsonElement element : new JsonParser().parse(SpecsIo.read(jsonFile)).getAsJsonArray()) {
+            JsonObject result = element.getAsJsonObject();
+            scores.put(getName(result), result.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+        }
+
+        return scores;
+    }
+
+    private static String getName(JsonObject result) {
+        String name = result.get("benchmark").getAsString();
+        if (!result.has("params")) {
+            return name;
+        }
+
+        Map<String, String> params = new LinkedHashMap<>();
+        for (var param : result.getAsJsonObject("params").entrySet()) {
+            params.put(param.getKey(), param.getValue().getAsString());
+        }
+
+        return name + params;
+    }
+}
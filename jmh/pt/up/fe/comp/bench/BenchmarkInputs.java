@@ -0,0 +1,30 @@
+package pt.up.fe.comp.bench;
+
+import pt.up.fe.comp.JmmProgramGenerator;
+import pt.up.fe.specs.util.SpecsIo;
+
+/**
+ * Java-- programs used as benchmark inputs: fixtures by name (e.g. "Life"), or "synthetic-N" for a generated program
+ * with N methods.
+ */
+public class BenchmarkInputs {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+    private static final long SEED = 42;
+
+    public static String get(String input) {
+        if (input.startsWith(SYNTHETIC_PREFIX)) {
+            return synthetic(Integer.parseInt(input.substring(SYNTHETIC_PREFIX.length())));
+        }
+
+        return SpecsIo.getResource("fixtures/public/" + input + ".jmm");
+    }
+
+    /**
+     * @param numMethods
+     * @return a generated program, always the same for the same number of methods
+     */
+    public static String synthetic(int numMethods) {
+        return new JmmProgramGenerator().setNumMethods(numMethods).generate(SEED);
+    }
+}
@@ -0,0 +1,63 @@
+package pt.up.fe.comp.bench;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.up.fe.comp.JmmAnalyser;
+import pt.up.fe.comp.SimpleParser;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+
+/**
+ * Parsing and semantic analysis. QuickSort has semantic errors, which are reported but do not stop the analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontendBenchmark {
+
+    @Param({ "Life", "QuickSort", "TicTacToe", "synthetic-10", "synthetic-100", "synthetic-400" })
+    public String input;
+
+    private final Map<String, String> config = Collections.emptyMap();
+
+    private String code;
+    private JmmParserResult parserResult;
+
+    @Setup
+    public void setup() {
+        code = BenchmarkInputs.get(input);
+        parserResult = new SimpleParser().parse(code, config);
+
+        if (parserResult.getRootNode() == null) {
+            throw new RuntimeException("Could not parse benchmark input '" + input + "': "
+                    + parserResult.getReports());
+        }
+    }
+
+    @Benchmark
+    public JmmParserResult parse() {
+        return new SimpleParser().parse(code, config);
+    }
+
+    @Benchmark
+    public JmmSemanticsResult semanticAnalysis() {
+        return new JmmAnalyser().semanticAnalysis(parserResult);
+    }
+}
@@ -0,0 +1,80 @@
+package pt.up.fe.comp.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.up.fe.comp.JmmGrammarParser;
+import pt.up.fe.comp.LineColAnnotator;
+import pt.up.fe.comp.ParseException;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+/**
+ * Conversion of the tree built by the parser into plain nodes, with the old JSON round-trip and with the direct
+ * structural copy done by {@link JmmNode#sanitize()}. The raw parse is measured as a reference. Run with the gc
+ * profiler (-Pjmh.include=SanitizeBenchmark and "-prof gc") to see the bytes allocated by each conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizeBenchmark {
+
+    @Param({ "Life", "QuickSort", "TicTacToe", "synthetic-100" })
+    public String input;
+
+    private String code;
+    private JmmNode root;
+
+    @Setup
+    public void setup() {
+        code = BenchmarkInputs.get(input);
+        root = parseRaw();
+    }
+
+    /**
+     * @return the tree of the parser, before it is converted
+     */
+    private JmmNode parseRaw() {
+        var parser = new JmmGrammarParser(SpecsIo.toInputStream(code));
+
+        try {
+            parser.Start();
+        } catch (ParseException e) {
+            throw new RuntimeException("Could not parse benchmark input '" + input + "'", e);
+        }
+
+        var rawRoot = (JmmNode) parser.rootNode();
+        new LineColAnnotator().visit(rawRoot);
+        return rawRoot;
+    }
+
+    @Benchmark
+    public JmmNode parse() {
+        return parseRaw();
+    }
+
+    @Benchmark
+    public JmmNode jsonRoundTrip() {
+        return JmmNodeImpl.fromJson(root.toJson());
+    }
+
+    @Benchmark
+    public JmmNode structuralCopy() {
+        return root.sanitize();
+    }
+}
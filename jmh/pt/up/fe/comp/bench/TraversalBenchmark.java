@@ -0,0 +1,77 @@
+package pt.up.fe.comp.bench;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pt.up.fe.comp.SimpleParser;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.PostorderJmmVisitor;
+import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+
+/**
+ * Walks the AST with the built-in visitors, without doing any work in the nodes. Run with the gc profiler
+ * (-Pjmh.include=TraversalBenchmark and "-prof gc") to see the allocation rate of the traversal itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+
+    @Param({ "Life", "synthetic-100" })
+    public String input;
+
+    private JmmNode root;
+    private PreorderJmmVisitor<Object, Integer> preorder;
+    private PostorderJmmVisitor<Object, Integer> postorder;
+
+    @Setup
+    public void setup() {
+        root = new SimpleParser().parse(BenchmarkInputs.get(input), Collections.emptyMap()).getRootNode();
+
+        preorder = new PreorderJmmVisitor<>();
+        preorder.addVisit("Identifier", (node, data) -> 1);
+        preorder.setDefaultVisit((node, data) -> 0);
+
+        postorder = new PostorderJmmVisitor<>();
+        postorder.addVisit("Identifier", (node, data) -> 1);
+        postorder.setDefaultVisit((node, data) -> 0);
+    }
+
+    @Benchmark
+    public Integer preorder() {
+        return preorder.visit(root);
+    }
+
+    @Benchmark
+    public Integer postorder() {
+        return postorder.visit(root);
+    }
+
+    @Benchmark
+    public int childrenView() {
+        return countNodes(root);
+    }
+
+    private static int countNodes(JmmNode node) {
+        int count = 1;
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            count += countNodes(node.getJmmChild(i));
+        }
+        return count;
+    }
+}
@@ -14,42 +14,302 @@
 package pt.up.fe.comp.jmm.ast;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
+import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.specs.util.SpecsCheck;
 
+/**
+ * Base implementation of the attributes of a node.
+ * 
+ * <p>
+ * Most nodes have one or two attributes besides their position, so instead of a map each node keeps "line" and "col"
+ * as ints, "array" and "field" as bits of a flags field, and the remaining attributes in a small array of interned
+ * names followed by their values. The String accessors convert from and to these representations.
+ */
 public abstract class AJmmNode implements JmmNode {
 
-    private final Map<String, String> attributes = new HashMap<>();
+    private static final int NO_POSITION = Integer.MIN_VALUE;
 
-    protected Map<String, String> getAttributesMap() {
-        return attributes;
-    }
+    private static final String[] FLAGS = { "array", "field" };
+
+    private static final String[] NO_SLOTS = new String[0];
+
+    // The kind is the name of the class, cached per class
+    private static final ClassValue<String> KINDS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName();
+        }
+    };
+
+    private static final ClassValue<Integer> KIND_IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return JmmNodeKinds.getId(KINDS.get(type));
+        }
+    };
+
+    private int line = NO_POSITION;
+    private int col = NO_POSITION;
+
+    // For each flag, a bit that says if it is set, followed by a bit with its value
+    private byte flags;
+
+    // Name and value of the other attributes, in consecutive positions
+    private String[] slots = NO_SLOTS;
+    private int numSlots;
+
+    // Set by setEnclosingScope, otherwise the scope is found by going through the ancestors
+    private boolean hasScope;
+    private JmmNode enclosingMethod;
+    private JmmNode enclosingClass;
+
+    private Type expressionType;
 
     @Override
     public String getKind() {
-        return this.getClass().getSimpleName();
+        return KINDS.get(getClass());
+    }
+
+    @Override
+    public int getKindId() {
+        return KIND_IDS.get(getClass());
+    }
+
+    @Override
+    public JmmNode getEnclosingMethod() {
+        return hasScope ? enclosingMethod : JmmNode.super.getEnclosingMethod();
+    }
+
+    @Override
+    public JmmNode getEnclosingClass() {
+        return hasScope ? enclosingClass : JmmNode.super.getEnclosingClass();
+    }
+
+    @Override
+    public void setEnclosingScope(JmmNode method, JmmNode classDeclaration) {
+        hasScope = true;
+        enclosingMethod = method;
+        enclosingClass = classDeclaration;
+    }
+
+    @Override
+    public Type getExpressionType() {
+        return expressionType;
+    }
+
+    @Override
+    public void setExpressionType(Type type) {
+        expressionType = type;
     }
 
     @Override
     public List<String> getAttributes() {
-        return new ArrayList<>(attributes.keySet());
+        List<String> attributes = new ArrayList<>(numSlots / 2 + 2);
+        for (int i = 0; i < numSlots; i += 2) {
+            attributes.add(slots[i]);
+        }
+        if (line != NO_POSITION) {
+            attributes.add("line");
+        }
+        if (col != NO_POSITION) {
+            attributes.add("col");
+        }
+        for (int flag = 0; flag < FLAGS.length; flag++) {
+            if (isFlagSet(flag)) {
+                attributes.add(FLAGS[flag]);
+            }
+        }
+        return attributes;
     }
 
     @Override
     public void put(String attribute, String value) {
-        attributes.put(attribute, value);
+        if (isPosition(attribute) && isInt(value)) {
+            putInt(attribute, Integer.parseInt(value));
+            return;
+        }
+
+        if (getFlag(attribute) != -1 && ("true".equals(value) || "false".equals(value))) {
+            putBoolean(attribute, "true".equals(value));
+            return;
+        }
+
+        clear(attribute);
+        putSlot(attribute, value);
     }
 
     @Override
     public String get(String attribute) {
-        var value = this.attributes.get(attribute);
+        var value = lookup(attribute);
 
         SpecsCheck.checkNotNull(value, () -> "Node " + toString() + " does not contain attribute '" + attribute + "'");
 
         return value;
     }
 
+    @Override
+    public Optional<String> getOptional(String attribute) {
+        return Optional.ofNullable(lookup(attribute));
+    }
+
+    @Override
+    public int getInt(String attribute) {
+        if (attribute.equals("line") && line != NO_POSITION) {
+            return line;
+        }
+        if (attribute.equals("col") && col != NO_POSITION) {
+            return col;
+        }
+        return Integer.parseInt(get(attribute));
+    }
+
+    @Override
+    public void putInt(String attribute, int value) {
+        if (!isPosition(attribute) || value == NO_POSITION) {
+            clear(attribute);
+            putSlot(attribute, Integer.toString(value));
+            return;
+        }
+
+        removeSlot(attribute);
+        if (attribute.equals("line")) {
+            line = value;
+        } else {
+            col = value;
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String attribute) {
+        int flag = getFlag(attribute);
+        if (flag != -1 && isFlagSet(flag)) {
+            return getFlagValue(flag);
+        }
+        return Boolean.parseBoolean(get(attribute));
+    }
+
+    @Override
+    public void putBoolean(String attribute, boolean value) {
+        int flag = getFlag(attribute);
+        if (flag == -1) {
+            clear(attribute);
+            putSlot(attribute, Boolean.toString(value));
+            return;
+        }
+
+        removeSlot(attribute);
+        int setBit = 1 << (2 * flag);
+        int valueBit = setBit << 1;
+        flags = (byte) (value ? (flags | setBit | valueBit) : ((flags | setBit) & ~valueBit));
+    }
+
+    private String lookup(String attribute) {
+        if (attribute.equals("line") && line != NO_POSITION) {
+            return Integer.toString(line);
+        }
+        if (attribute.equals("col") && col != NO_POSITION) {
+            return Integer.toString(col);
+        }
+
+        int flag = getFlag(attribute);
+        if (flag != -1 && isFlagSet(flag)) {
+            return Boolean.toString(getFlagValue(flag));
+        }
+
+        int index = indexOfSlot(attribute);
+        return index == -1 ? null : slots[index + 1];
+    }
+
+    /**
+     * Removes the int or boolean representation of the attribute, if any.
+     */
+    private void clear(String attribute) {
+        if (attribute.equals("line")) {
+            line = NO_POSITION;
+        } else if (attribute.equals("col")) {
+            col = NO_POSITION;
+        }
+
+        int flag = getFlag(attribute);
+        if (flag != -1) {
+            flags &= ~(3 << (2 * flag));
+        }
+    }
+
+    private static boolean isPosition(String attribute) {
+        return attribute.equals("line") || attribute.equals("col");
+    }
+
+    private static boolean isInt(String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int getFlag(String attribute) {
+        for (int i = 0; i < FLAGS.length; i++) {
+            if (FLAGS[i].equals(attribute)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFlagSet(int flag) {
+        return (flags & (1 << (2 * flag))) != 0;
+    }
+
+    private boolean getFlagValue(int flag) {
+        return (flags & (2 << (2 * flag))) != 0;
+    }
+
+    private int indexOfSlot(String attribute) {
+        // Names are interned and most lookups use literals, so the identity check usually finds it
+        for (int i = 0; i < numSlots; i += 2) {
+            if (slots[i] == attribute) {
+                return i;
+            }
+        }
+        for (int i = 0; i < numSlots; i += 2) {
+            if (slots[i].equals(attribute)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void putSlot(String attribute, String value) {
+        int index = indexOfSlot(attribute);
+        if (index != -1) {
+            slots[index + 1] = value;
+            return;
+        }
+
+        if (numSlots == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(2, slots.length * 2));
+        }
+
+        slots[numSlots] = attribute.intern();
+        slots[numSlots + 1] = value;
+        numSlots += 2;
+    }
+
+    private void removeSlot(String attribute) {
+        int index = indexOfSlot(attribute);
+        if (index == -1) {
+            return;
+        }
+
+        System.arraycopy(slots, index + 2, slots, index, numSlots - index - 2);
+        numSlots -= 2;
+        slots[numSlots] = null;
+        slots[numSlots + 1] = null;
+    }
 }
@@ -1,5 +1,6 @@
 package pt.up.fe.comp.jmm.ast;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -18,9 +19,13 @@ public abstract class AJmmVisitor<D, R> implements JmmVisitor<D, R> {
     private final Map<String, BiFunction<JmmNode, D, R>> visitMap;
     private BiFunction<JmmNode, D, R> defaultVisit;
 
+    // Visit method of each kind id, filled from visitMap the first time a kind is visited
+    private BiFunction<JmmNode, D, R>[] dispatch;
+
     public AJmmVisitor(Map<String, BiFunction<JmmNode, D, R>> visitMap, BiFunction<JmmNode, D, R> defaultVisit) {
         this.visitMap = visitMap;
         this.defaultVisit = defaultVisit;
+        this.dispatch = newDispatch(JmmNodeKinds.getNumKinds());
     }
 
     public AJmmVisitor() {
@@ -42,11 +47,26 @@ public abstract class AJmmVisitor<D, R> implements JmmVisitor<D, R> {
     @Override
     public void addVisit(String kind, BiFunction<JmmNode, D, R> method) {
         this.visitMap.put(kind, method);
+        clearDispatch();
     }
 
     @Override
     public void setDefaultVisit(BiFunction<JmmNode, D, R> defaultVisit) {
         this.defaultVisit = defaultVisit;
+        clearDispatch();
+    }
+
+    private BiFunction<JmmNode, D, R>[] newDispatch(int size) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        BiFunction<JmmNode, D, R>[] dispatch = new BiFunction[size];
+        return dispatch;
+    }
+
+    private void clearDispatch() {
+        // Can be called from the superclass constructor, before the field is initialized
+        if (dispatch != null) {
+            dispatch = newDispatch(Math.max(dispatch.length, JmmNodeKinds.getNumKinds()));
+        }
     }
 
     // protected R visitDefault(JmmNode jmmNode, D data) {
@@ -75,16 +95,39 @@ public abstract class AJmmVisitor<D, R> implements JmmVisitor<D, R> {
         return visitMethod;
     }
 
+    /**
+     * Same as {@link #getVisit(String)}, but looks up the visit method by the kind id of the node.
+     * 
+     * @param node
+     * @return the visit method to use for the node
+     */
+    protected BiFunction<JmmNode, D, R> getVisit(JmmNode node) {
+        int id = node.getKindId();
+
+        if (id < dispatch.length) {
+            var visitMethod = dispatch[id];
+            if (visitMethod != null) {
+                return visitMethod;
+            }
+        } else {
+            dispatch = Arrays.copyOf(dispatch, Math.max(id + 1, JmmNodeKinds.getNumKinds()));
+        }
+
+        var visitMethod = getVisit(node.getKind());
+        dispatch[id] = visitMethod;
+        return visitMethod;
+    }
+
     @Override
     public R visit(JmmNode jmmNode, D data) {
         SpecsCheck.checkNotNull(jmmNode, () -> "Node should not be null");
 
-        return getVisit(jmmNode.getKind()).apply(jmmNode, data);
+        return getVisit(jmmNode).apply(jmmNode, data);
     }
 
     protected R visitAllChildren(JmmNode node, D data) {
-        for (var child : node.getChildren()) {
-            visit(child, data);
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            visit(node.getJmmChild(i), data);
         }
 
         return null;
@@ -0,0 +1,157 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import pt.up.fe.specs.util.SpecsCheck;
+
+/**
+ * Runs several {@link JmmPass} in a single traversal of the AST, instead of walking the tree once per pass.
+ *
+ * <p>
+ * When entering a node, the pre visits of the passes are called in order, and when leaving it, after its children, the
+ * post visits are called in the same order. Passes are ordered as they were added, except that a pass always comes
+ * after the passes given to {@link JmmPass#runAfter(JmmPass)}. Passes that skip children or stop do not affect the
+ * others, and the walk does not go into subtrees that no pass will visit.
+ */
+public class FusedJmmVisitor {
+
+    private final List<JmmPass> passes = new ArrayList<>();
+
+    public FusedJmmVisitor addPass(JmmPass pass) {
+        passes.add(pass);
+        return this;
+    }
+
+    public void visit(JmmNode root) {
+        SpecsCheck.checkNotNull(root, () -> "Node should not be null");
+
+        var ordered = order();
+        for (var pass : ordered) {
+            pass.start();
+        }
+
+        var walk = new Walk(ordered);
+        var stack = new VisitStack<Object>();
+
+        walk.enter(root);
+        stack.push(root, null, null);
+
+        while (!stack.isEmpty()) {
+            var child = walk.hasActivePasses() ? stack.nextChild() : null;
+            if (child != null) {
+                walk.enter(child);
+                stack.push(child, null, null);
+                continue;
+            }
+
+            walk.leave(stack.node());
+            stack.pop();
+        }
+    }
+
+    /**
+     * @return the passes in the order their callbacks are called
+     */
+    private JmmPass[] order() {
+        Set<JmmPass> ordered = new LinkedHashSet<>();
+        Set<JmmPass> visiting = new LinkedHashSet<>();
+
+        for (var pass : passes) {
+            addOrdered(pass, ordered, visiting);
+        }
+
+        return ordered.toArray(new JmmPass[0]);
+    }
+
+    private void addOrdered(JmmPass pass, Set<JmmPass> ordered, Set<JmmPass> visiting) {
+        if (ordered.contains(pass)) {
+            return;
+        }
+
+        if (!passes.contains(pass)) {
+            throw new RuntimeException("Pass " + pass + " must run before another pass, but was not added");
+        }
+
+        if (!visiting.add(pass)) {
+            throw new RuntimeException("Cycle in the order of passes: " + visiting);
+        }
+
+        for (var dependency : pass.getDependencies()) {
+            addOrdered(dependency, ordered, visiting);
+        }
+
+        visiting.remove(pass);
+        ordered.add(pass);
+    }
+
+    /**
+     * State of the passes during a traversal.
+     */
+    private static class Walk {
+        private final JmmPass[] passes;
+
+        // For each pass, the node whose children it is skipping, if any
+        private final JmmNode[] skipping;
+
+        // Passes that are neither stopped nor skipping
+        private int numActive;
+
+        private Walk(JmmPass[] passes) {
+            this.passes = passes;
+            this.skipping = new JmmNode[passes.length];
+            this.numActive = passes.length;
+        }
+
+        private boolean hasActivePasses() {
+            return numActive > 0;
+        }
+
+        private void enter(JmmNode node) {
+            for (int i = 0; i < passes.length; i++) {
+                var pass = passes[i];
+                if (pass.isStopped() || skipping[i] != null) {
+                    continue;
+                }
+
+                pass.preVisit(node);
+
+                if (pass.isStopped()) {
+                    numActive--;
+                } else if (pass.takeSkipChildren()) {
+                    skipping[i] = node;
+                    numActive--;
+                }
+            }
+        }
+
+        private void leave(JmmNode node) {
+            for (int i = 0; i < passes.length; i++) {
+                var pass = passes[i];
+                if (pass.isStopped()) {
+                    continue;
+                }
+
+                if (skipping[i] != null) {
+                    if (skipping[i] != node) {
+                        continue;
+                    }
+
+                    skipping[i] = null;
+                    numActive++;
+                }
+
+                pass.postVisit(node);
+
+                // Skipping children is only meaningful in a pre visit
+                pass.takeSkipChildren();
+
+                if (pass.isStopped()) {
+                    numActive--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for ASTs, an alternative to {@link JmmNode#toJson()} for caching trees and sending them to
+ * other processes.
+ *
+ * <p>
+ * After a header ("JMMB" and the version of the format), nodes are written in preorder, each as its kind, its number
+ * of attributes, the name and value of each attribute, and its number of children. Numbers are unsigned varints.
+ * Strings (kinds, attribute names and values) are references to a table that is built while writing: reference 0 is
+ * followed by the length and UTF-8 bytes of a new string, which gets the next index of the table, and any other
+ * reference n is the string at index n - 1. Kinds are written as strings, since the ids of {@link JmmNodeKinds} are
+ * only valid inside a process.
+ *
+ * <p>
+ * The nodes are written in chunks of at most 64 KB, each preceded by its length as a varint, and a chunk of length 0
+ * ends the tree. The header and the chunk lengths are read one byte at a time and each chunk with its exact length, so
+ * reading a tree consumes its bytes and nothing more, and other data (e.g. another tree) can follow it in the channel.
+ *
+ * <p>
+ * Trees are read and written through a buffer, without recursion, and the channels are not closed.
+ */
+public class JmmBinary {
+
+    private static final byte[] MAGIC = { 'J', 'M', 'M', 'B' };
+    private static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_VARINT_BYTES = 5;
+    // Larger strings are not written, so a larger length read from a channel is corrupt
+    private static final int MAX_STRING_BYTES = 1 << 24;
+
+    private static final int NEW_STRING = 0;
+
+    /**
+     * Writes the given node and all its descendants to the channel.
+     *
+     * @param node
+     * @param channel
+     */
+    public static void write(JmmNode node, WritableByteChannel channel) {
+        try {
+            new Writer(channel).writeTree(node);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write binary AST", e);
+        }
+    }
+
+    /**
+     * Reads a tree written by {@link #write(JmmNode, WritableByteChannel)}.
+     *
+     * @param channel
+     * @return the root of the tree
+     */
+    public static JmmNodeImpl read(ReadableByteChannel channel) {
+        try {
+            return new Reader(channel).readTree();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read binary AST", e);
+        }
+    }
+
+    public static byte[] toBytes(JmmNode node) {
+        var bytes = new ByteArrayOutputStream();
+        write(node, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    public static JmmNodeImpl fromBytes(byte[] bytes) {
+        return read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    private static class Writer {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer header = ByteBuffer.allocate(MAGIC.length + MAX_VARINT_BYTES);
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void writeTree(JmmNode root) throws IOException {
+            header.put(MAGIC);
+            putVarint(header, VERSION);
+            writeHeader();
+
+            Deque<JmmNode> stack = new ArrayDeque<>();
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                var node = stack.pop();
+                writeNode(node);
+
+                var children = node.getChildrenView();
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                }
+            }
+
+            flush();
+
+            // End of the tree
+            putVarint(header, 0);
+            writeHeader();
+        }
+
+        private void writeNode(JmmNode node) throws IOException {
+            writeString(node.getKind());
+
+            List<String> attributes = node.getAttributes();
+            writeVarint(attributes.size());
+            for (String attribute : attributes) {
+                writeString(attribute);
+                writeString(node.get(attribute));
+            }
+
+            writeVarint(node.getNumChildren());
+        }
+
+        private void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarint(index + 1);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            writeVarint(NEW_STRING);
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                throw new RuntimeException("String of " + bytes.length + " bytes is too large for a binary AST, the "
+                        + "maximum is " + MAX_STRING_BYTES);
+            }
+            writeVarint(bytes.length);
+
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void writeVarint(int value) throws IOException {
+            if (buffer.remaining() < MAX_VARINT_BYTES) {
+                flush();
+            }
+
+            putVarint(buffer, value);
+        }
+
+        private static void putVarint(ByteBuffer target, int value) {
+            while ((value & ~0x7F) != 0) {
+                target.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            target.put((byte) value);
+        }
+
+        /**
+         * Writes the buffered nodes as a chunk, preceded by its length.
+         */
+        private void flush() throws IOException {
+            if (buffer.position() == 0) {
+                // A chunk of length 0 would end the tree
+                return;
+            }
+
+            putVarint(header, buffer.position());
+            writeHeader();
+
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeHeader() throws IOException {
+            header.flip();
+            writeFully(header);
+            header.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    private static class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer single = ByteBuffer.allocate(1);
+        private final List<String> strings = new ArrayList<>();
+
+        // Bytes inside the chunks, and bytes of the header and of the chunk lengths, which are read one at a time
+        private final ByteSource chunkBytes = this::readByte;
+        private final ByteSource rawBytes = this::readRawByte;
+
+        private Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            // Starts empty, filled on the first read
+            buffer.flip();
+        }
+
+        private JmmNodeImpl readTree() throws IOException {
+            var magic = ByteBuffer.allocate(MAGIC.length);
+            readFully(magic);
+            if (!Arrays.equals(magic.array(), MAGIC)) {
+                throw new RuntimeException("Not a binary AST");
+            }
+
+            int version = readVarint(rawBytes);
+            if (version != VERSION) {
+                throw new RuntimeException("Unsupported version of binary AST: " + version);
+            }
+
+            // Nodes whose children are still being read, and how many children are missing
+            JmmNodeImpl[] parents = new JmmNodeImpl[32];
+            int[] missing = new int[32];
+            int size = 0;
+
+            var root = new JmmNodeImpl(readString());
+            int numChildren = readAttributes(root);
+            if (numChildren > 0) {
+                parents[0] = root;
+                missing[0] = numChildren;
+                size = 1;
+            }
+
+            while (size > 0) {
+                if (missing[size - 1] == 0) {
+                    parents[--size] = null;
+                    continue;
+                }
+                missing[size - 1]--;
+
+                var child = new JmmNodeImpl(readString());
+                parents[size - 1].add(child);
+
+                numChildren = readAttributes(child);
+                if (numChildren > 0) {
+                    if (size == parents.length) {
+                        parents = Arrays.copyOf(parents, size * 2);
+                        missing = Arrays.copyOf(missing, size * 2);
+                    }
+                    parents[size] = child;
+                    missing[size] = numChildren;
+                    size++;
+                }
+            }
+
+            if (buffer.hasRemaining() || readVarint(rawBytes) != 0) {
+                throw new RuntimeException("Expected the end of the binary AST after the last node");
+            }
+
+            return root;
+        }
+
+        /**
+         * Reads the attributes of the node.
+         *
+         * @return the number of children of the node
+         */
+        private int readAttributes(JmmNodeImpl node) throws IOException {
+            int numAttributes = readVarint(chunkBytes);
+            for (int i = 0; i < numAttributes; i++) {
+                String attribute = readString();
+                node.put(attribute, readString());
+            }
+
+            return readVarint(chunkBytes);
+        }
+
+        private String readString() throws IOException {
+            int reference = readVarint(chunkBytes);
+            if (reference != NEW_STRING) {
+                // Varints above 2^31 read as negative numbers
+                if (reference < 0 || reference > strings.size()) {
+                    throw new RuntimeException("Invalid string reference in binary AST: " + reference);
+                }
+                return strings.get(reference - 1);
+            }
+
+            int numBytes = readVarint(chunkBytes);
+            if (numBytes < 0 || numBytes > MAX_STRING_BYTES) {
+                throw new RuntimeException("Invalid string length in binary AST: " + numBytes);
+            }
+
+            byte[] bytes = new byte[numBytes];
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    fill();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.get(bytes, offset, length);
+                offset += length;
+            }
+
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private static int readVarint(ByteSource source) throws IOException {
+            int value = 0;
+            for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+                byte b = source.read();
+                value |= (b & 0x7F) << (7 * i);
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new RuntimeException("Invalid number in binary AST");
+        }
+
+        private byte readByte() throws IOException {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            return buffer.get();
+        }
+
+        private byte readRawByte() throws IOException {
+            single.clear();
+            readFully(single);
+            return single.get(0);
+        }
+
+        /**
+         * Reads the next chunk into the buffer.
+         */
+        private void fill() throws IOException {
+            int length = readVarint(rawBytes);
+            if (length == 0) {
+                throw new RuntimeException("Unexpected end of binary AST");
+            }
+            if (length < 0 || length > BUFFER_SIZE) {
+                throw new RuntimeException("Invalid chunk length in binary AST: " + length);
+            }
+
+            buffer.clear();
+            buffer.limit(length);
+            readFully(buffer);
+            buffer.flip();
+        }
+
+        private void readFully(ByteBuffer target) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new RuntimeException("Unexpected end of binary AST");
+                }
+            }
+        }
+    }
+
+    private interface ByteSource {
+        byte read() throws IOException;
+    }
+}
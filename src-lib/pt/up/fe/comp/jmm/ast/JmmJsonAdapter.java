@@ -0,0 +1,157 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes and reads nodes as JSON objects with "kind", "attributes" and "children", directly on the Gson streams. No
+ * intermediate JsonElement tree is created and nodes are handled without recursion, so dumping or loading a tree only
+ * needs memory for the tree itself.
+ *
+ * <p>
+ * Attributes are written in the order of {@link JmmNode#getAttributes()}. When reading, the properties of an object
+ * can be in any order, and nodes are created as {@link JmmNodeImpl}.
+ */
+public class JmmJsonAdapter extends TypeAdapter<JmmNode> {
+
+    @Override
+    public void write(JsonWriter out, JmmNode root) throws IOException {
+        if (root == null) {
+            out.nullValue();
+            return;
+        }
+
+        var stack = new VisitStack<Object>();
+        beginNode(out, root);
+        stack.push(root, null, null);
+
+        while (!stack.isEmpty()) {
+            var child = stack.nextChild();
+            if (child != null) {
+                beginNode(out, child);
+                stack.push(child, null, null);
+                continue;
+            }
+
+            out.endArray();
+            out.endObject();
+            stack.pop();
+        }
+    }
+
+    /**
+     * Writes the kind and attributes of the node, and opens the array of children.
+     */
+    private static void beginNode(JsonWriter out, JmmNode node) throws IOException {
+        out.beginObject();
+        out.name("kind").value(node.getKind());
+
+        out.name("attributes").beginObject();
+        for (String attribute : node.getAttributes()) {
+            out.name(attribute).value(node.get(attribute));
+        }
+        out.endObject();
+
+        out.name("children").beginArray();
+    }
+
+    @Override
+    public JmmNode read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        // Nodes are only created when their object ends, since "kind" can come after the other properties
+        List<PartialNode> stack = new ArrayList<>();
+
+        in.beginObject();
+        stack.add(new PartialNode());
+
+        while (true) {
+            var current = stack.get(stack.size() - 1);
+
+            // Inside the children of the current node
+            if (current.readingChildren) {
+                if (in.hasNext()) {
+                    in.beginObject();
+                    stack.add(new PartialNode());
+                    continue;
+                }
+
+                in.endArray();
+                current.readingChildren = false;
+                continue;
+            }
+
+            if (in.hasNext()) {
+                readProperty(in, current);
+                continue;
+            }
+
+            in.endObject();
+            var node = current.toNode(in);
+            stack.remove(stack.size() - 1);
+
+            if (stack.isEmpty()) {
+                return node;
+            }
+
+            stack.get(stack.size() - 1).children.add(node);
+        }
+    }
+
+    private static void readProperty(JsonReader in, PartialNode node) throws IOException {
+        String name = in.nextName();
+
+        switch (name) {
+        case "kind":
+            node.kind = in.nextString();
+            break;
+        case "attributes":
+            in.beginObject();
+            while (in.hasNext()) {
+                String attribute = in.nextName();
+                node.attributes.put(attribute, in.nextString());
+            }
+            in.endObject();
+            break;
+        case "children":
+            in.beginArray();
+            node.readingChildren = true;
+            break;
+        default:
+            in.skipValue();
+        }
+    }
+
+    /**
+     * A node whose JSON object is being read.
+     */
+    private static class PartialNode {
+        private String kind;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final List<JmmNodeImpl> children = new ArrayList<>();
+        private boolean readingChildren;
+
+        private JmmNodeImpl toNode(JsonReader in) {
+            if (kind == null) {
+                throw new JsonParseException("Node without kind at " + in);
+            }
+
+            var node = new JmmNodeImpl(kind);
+            attributes.forEach(node::put);
+            children.forEach(node::add);
+            return node;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package pt.up.fe.comp.jmm.ast;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+import pt.up.fe.comp.jmm.analysis.table.Type;
 
 import pt.up.fe.specs.util.SpecsCollections;
 
@@ -23,6 +29,13 @@ public interface JmmNode {
      */
     String getKind();
 
+    /**
+     * @return an integer that identifies the kind of this node, see {@link JmmNodeKinds}
+     */
+    default int getKindId() {
+        return JmmNodeKinds.getId(getKind());
+    }
+
     /**
      * @return the names of the attributes supported by this Node kind
      */
@@ -54,6 +67,44 @@ public interface JmmNode {
         throw new RuntimeException("Not implemented for this class: " + getClass());
     }
 
+    /**
+     * 
+     * @param attribute
+     * @return the value of an integer attribute, such as "line" or "col"
+     */
+    default int getInt(String attribute) {
+        return Integer.parseInt(get(attribute));
+    }
+
+    /**
+     * Sets the value of an integer attribute.
+     * 
+     * @param attribute
+     * @param value
+     */
+    default void putInt(String attribute, int value) {
+        put(attribute, Integer.toString(value));
+    }
+
+    /**
+     * 
+     * @param attribute
+     * @return the value of a boolean attribute, such as "array"
+     */
+    default boolean getBoolean(String attribute) {
+        return Boolean.parseBoolean(get(attribute));
+    }
+
+    /**
+     * Sets the value of a boolean attribute.
+     * 
+     * @param attribute
+     * @param value
+     */
+    default void putBoolean(String attribute, boolean value) {
+        put(attribute, Boolean.toString(value));
+    }
+
     /**
      * 
      * @return the parent of the current node, or null if this is the root node
@@ -80,6 +131,62 @@ public interface JmmNode {
         return Optional.empty();
     }
 
+    /**
+     * 
+     * @return the method (InstanceMethod or MainMethod) that contains this node, which can be the node itself, or null
+     *         if the node is not inside a method
+     */
+    default JmmNode getEnclosingMethod() {
+        JmmNode node = this;
+        while (node != null && !node.getKind().equals("InstanceMethod") && !node.getKind().equals("MainMethod")) {
+            node = node.getJmmParent();
+        }
+
+        return node;
+    }
+
+    /**
+     * 
+     * @return the ClassDeclaration that contains this node, which can be the node itself, or null if the node is not
+     *         inside a class
+     */
+    default JmmNode getEnclosingClass() {
+        JmmNode node = this;
+        while (node != null && !node.getKind().equals("ClassDeclaration")) {
+            node = node.getJmmParent();
+        }
+
+        return node;
+    }
+
+    /**
+     * Records the enclosing method and class of this node, so that {@link #getEnclosingMethod()} and
+     * {@link #getEnclosingClass()} do not need to go through the ancestors.
+     * 
+     * @param method
+     * @param classDeclaration
+     */
+    default void setEnclosingScope(JmmNode method, JmmNode classDeclaration) {
+        throw new RuntimeException("Not implemented for this class: " + getClass());
+    }
+
+    /**
+     * 
+     * @return the type of this expression found by semantic analysis, or null if it has no type or was not analysed
+     */
+    default Type getExpressionType() {
+        return null;
+    }
+
+    /**
+     * Records the type of this expression, so that later stages do not need to infer it again.
+     * 
+     * @param type
+     */
+    default void setExpressionType(Type type) {
+        throw new RuntimeException("Not implemented for this class: " + getClass());
+    }
+
     /**
      * 
      * @return the children of the node or an empty list if there are no children. The returned list is a copy of the
@@ -89,6 +196,15 @@ public interface JmmNode {
      */
     List<JmmNode> getChildren();
 
+    /**
+     * 
+     * @return a read-only view of the children of the node. Unlike {@link #getChildren()}, the list is not a copy, so
+     *         it reflects later changes to the AST. Use it to iterate over the children without allocating a new list
+     */
+    default List<JmmNode> getChildrenView() {
+        return Collections.unmodifiableList(getChildren());
+    }
+
     /**
      * 
      * @param index
@@ -134,25 +250,58 @@ public interface JmmNode {
     }
 
     default String toJson() {
-        Gson gson = new GsonBuilder()
-                // .excludeFieldsWithoutExposeAnnotation()
-                .setPrettyPrinting()
-                .registerTypeAdapter(JmmNode.class, new JmmSerializer())
-                .create();
-        return gson.toJson(this, JmmNode.class);
+        var json = new StringWriter();
+        toJson(json);
+        return json.toString();
+    }
+
+    /**
+     * Writes this node and all descendants as pretty-printed JSON, as the tree is walked. See {@link JmmJsonAdapter}.
+     * 
+     * @param writer
+     */
+    default void toJson(Writer writer) {
+        try {
+            var out = new JsonWriter(writer);
+            out.setIndent("  ");
+            new JmmJsonAdapter().write(out, this);
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write JSON of node " + getKind(), e);
+        }
     }
 
     static JmmNode fromJson(String json) {
         return JmmNodeImpl.fromJson(json);
     }
 
+    static JmmNode fromJson(Reader reader) {
+        return JmmNodeImpl.fromJson(reader);
+    }
+
+    /**
+     * Same contents as {@link #toJson()}, in the compact format of {@link JmmBinary}.
+     * 
+     * @return
+     */
+    default byte[] toBinary() {
+        return JmmBinary.toBytes(this);
+    }
+
+    static JmmNode fromBinary(byte[] bytes) {
+        return JmmBinary.fromBytes(bytes);
+    }
+
     /**
      * Converts this node and all descendants to JmmNodeImpl.
      * 
+     * <p>
+     * The conversion is a direct structural copy of kinds, attributes and children, with no JSON intermediate.
+     * 
      * @return
      */
     default JmmNode sanitize() {
-        return fromJson(this.toJson());
+        return JmmNodeImpl.fromNode(this);
     }
 
     static <T> List<JmmNode> convertChildren(T[] children) {
@@ -177,10 +326,48 @@ public interface JmmNode {
     }
 
     default void toTree(StringBuilder tree, String prefix) {
-        tree.append(prefix).append(toString()).append("\n");
+        try {
+            writeTree(this, tree, prefix);
+        } catch (IOException e) {
+            // A StringBuilder does not throw
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the same text as {@link #toTree()}, one node at a time.
+     * 
+     * @param writer
+     */
+    default void toTree(Writer writer) {
+        try {
+            writeTree(this, writer, "");
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write tree of node " + getKind(), e);
+        }
+    }
+
+    private static void writeTree(JmmNode root, Appendable tree, String prefix) throws IOException {
+        var indentation = new StringBuilder(prefix);
+        var stack = new VisitStack<Object>();
+
+        tree.append(indentation).append(root.toString()).append("\n");
+        stack.push(root, null, null);
+
+        while (!stack.isEmpty()) {
+            var child = stack.nextChild();
+            if (child == null) {
+                stack.pop();
+                if (!stack.isEmpty()) {
+                    indentation.setLength(indentation.length() - 3);
+                }
+                continue;
+            }
 
-        for (var child : getChildren()) {
-            child.toTree(tree, prefix + "   ");
+            indentation.append("   ");
+            tree.append(indentation).append(child.toString()).append("\n");
+            stack.push(child, null, null);
         }
     }
 
@@ -232,7 +419,7 @@ public interface JmmNode {
             return -1;
         }
 
-        return parent.getChildren().indexOf(this);
+        return parent.getChildrenView().indexOf(this);
     }
 
     /**
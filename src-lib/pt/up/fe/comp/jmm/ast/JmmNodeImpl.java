@@ -1,22 +1,30 @@
 package pt.up.fe.comp.jmm.ast;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
 
 public class JmmNodeImpl extends AJmmNode {
 
     protected String kind;
+    private final int kindId;
     protected List<JmmNode> children;
+    private final List<JmmNode> childrenView;
     private JmmNode parent;
 
     public JmmNodeImpl(String kind) {
         this.kind = kind;
+        this.kindId = JmmNodeKinds.getId(kind);
         this.children = new ArrayList<>();
+        this.childrenView = Collections.unmodifiableList(this.children);
     }
 
     @Override
@@ -29,14 +37,24 @@ public class JmmNodeImpl extends AJmmNode {
         return new ArrayList<>(this.children);
     }
 
+    @Override
+    public List<JmmNode> getChildrenView() {
+        return this.childrenView;
+    }
+
+    @Override
+    public JmmNode getJmmChild(int index) {
+        return this.children.get(index);
+    }
+
     @Override
     public String getKind() {
         return this.kind;
     }
 
     @Override
-    public Optional<String> getOptional(String attribute) {
-        return Optional.ofNullable(getAttributesMap().get(attribute));
+    public int getKindId() {
+        return this.kindId;
     }
 
     @Override
@@ -81,13 +99,65 @@ public class JmmNodeImpl extends AJmmNode {
      * @return
      */
     public static JmmNodeImpl fromJson(String source) {
+        return fromJson(new StringReader(source));
+    }
+
+    /**
+     * Reads a node from JSON, as the text is read. See {@link JmmJsonAdapter}.
+     * 
+     * @param reader
+     * @return
+     */
+    public static JmmNodeImpl fromJson(Reader reader) {
+        try {
+            var in = new JsonReader(reader);
+            in.setLenient(true);
+            return (JmmNodeImpl) new JmmJsonAdapter().read(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read JSON of node", e);
+        }
+    }
+
+    /**
+     * Creates a copy of the given node and all its descendants as JmmNodeImpl instances. Attributes are copied and
+     * parent links are set on the new nodes.
+     * 
+     * @param node
+     * @return
+     */
+    public static JmmNodeImpl fromNode(JmmNode node) {
+        var root = copyAttributes(node);
+
+        // Explicit stack of (original, copy) pairs, so that deep trees do not overflow the call stack
+        Deque<JmmNode> originals = new ArrayDeque<>();
+        Deque<JmmNodeImpl> copies = new ArrayDeque<>();
+        originals.push(node);
+        copies.push(root);
+
+        while (!originals.isEmpty()) {
+            var original = originals.pop();
+            var copy = copies.pop();
+
+            for (var child : original.getChildrenView()) {
+                var childCopy = copyAttributes(child);
+                copy.add(childCopy);
+
+                originals.push(child);
+                copies.push(childCopy);
+            }
+        }
+
+        return root;
+    }
+
+    private static JmmNodeImpl copyAttributes(JmmNode node) {
+        var copy = new JmmNodeImpl(node.getKind());
+
+        for (var attribute : node.getAttributes()) {
+            copy.put(attribute, node.get(attribute));
+        }
 
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(JmmNode.class, new JmmDeserializer())
-                .registerTypeAdapter(JmmNodeImpl.class, new JmmDeserializer())
-                // .excludeFieldsWithoutExposeAnnotation()
-                .create();
-        return gson.fromJson(source, JmmNodeImpl.class);
+        return copy;
     }
 
     @Override
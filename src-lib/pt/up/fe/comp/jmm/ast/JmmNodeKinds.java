@@ -0,0 +1,61 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a small integer id to each node kind, so that visitors can dispatch with an array instead of a map.
+ *
+ * <p>
+ * Ids are given in order of first use, starting at 0, and stay the same for the rest of the execution.
+ */
+public final class JmmNodeKinds {
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> KINDS = new ArrayList<>();
+
+    private JmmNodeKinds() {
+    }
+
+    /**
+     *
+     * @param kind
+     * @return the id of the given kind, assigning a new one if this kind was not seen before
+     */
+    public static int getId(String kind) {
+        var id = IDS.get(kind);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (KINDS) {
+            return IDS.computeIfAbsent(kind, newKind -> {
+                KINDS.add(newKind);
+                return KINDS.size() - 1;
+            });
+        }
+    }
+
+    /**
+     *
+     * @param id
+     * @return the kind with the given id
+     */
+    public static String getKind(int id) {
+        synchronized (KINDS) {
+            return KINDS.get(id);
+        }
+    }
+
+    /**
+     *
+     * @return the number of kinds that have an id, which is larger than any id given so far
+     */
+    public static int getNumKinds() {
+        synchronized (KINDS) {
+            return KINDS.size();
+        }
+    }
+}
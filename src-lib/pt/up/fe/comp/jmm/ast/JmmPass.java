@@ -0,0 +1,146 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A pass over the AST, made of callbacks that are called for each node, before (pre) and after (post) visiting its
+ * children. Several passes can run in a single traversal of the tree with {@link FusedJmmVisitor}.
+ *
+ * <p>
+ * Callbacks can call {@link #skipChildren()} to skip the descendants of the current node, and {@link #stop()} to not
+ * visit any more nodes.
+ */
+public class JmmPass {
+
+    private static final Consumer<JmmNode> NO_VISIT = node -> {
+    };
+
+    private final Map<String, Consumer<JmmNode>> preVisits = new HashMap<>();
+    private final Map<String, Consumer<JmmNode>> postVisits = new HashMap<>();
+    private Consumer<JmmNode> defaultPreVisit = NO_VISIT;
+    private Consumer<JmmNode> defaultPostVisit = NO_VISIT;
+
+    // Callbacks of each kind id, filled the first time a kind is visited
+    private Consumer<JmmNode>[] preDispatch = newDispatch();
+    private Consumer<JmmNode>[] postDispatch = newDispatch();
+
+    private final List<JmmPass> dependencies = new ArrayList<>();
+
+    private boolean skipChildren;
+    private boolean stopped;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Consumer<JmmNode>[] newDispatch() {
+        return new Consumer[JmmNodeKinds.getNumKinds()];
+    }
+
+    public void addPreVisit(String kind, Consumer<JmmNode> visit) {
+        preVisits.put(kind, visit);
+        preDispatch = newDispatch();
+    }
+
+    public void addPostVisit(String kind, Consumer<JmmNode> visit) {
+        postVisits.put(kind, visit);
+        postDispatch = newDispatch();
+    }
+
+    public void setDefaultPreVisit(Consumer<JmmNode> visit) {
+        defaultPreVisit = visit;
+        preDispatch = newDispatch();
+    }
+
+    public void setDefaultPostVisit(Consumer<JmmNode> visit) {
+        defaultPostVisit = visit;
+        postDispatch = newDispatch();
+    }
+
+    /**
+     * In each node, the callbacks of this pass are called after the ones of the given pass. Both passes must be added
+     * to the same {@link FusedJmmVisitor}.
+     *
+     * @param pass
+     */
+    public void runAfter(JmmPass pass) {
+        dependencies.add(pass);
+    }
+
+    List<JmmPass> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Called from a pre visit, the children of the current node are not visited by this pass. The post visit of the
+     * node is still called.
+     */
+    protected void skipChildren() {
+        skipChildren = true;
+    }
+
+    /**
+     * Called from a callback, no more nodes are visited by this pass.
+     */
+    protected void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Runs this pass alone over the given tree.
+     *
+     * @param root
+     */
+    public void visit(JmmNode root) {
+        new FusedJmmVisitor().addPass(this).visit(root);
+    }
+
+    void start() {
+        skipChildren = false;
+        stopped = false;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return true if the pass called {@link #skipChildren()} since the last call to this method
+     */
+    boolean takeSkipChildren() {
+        boolean skip = skipChildren;
+        skipChildren = false;
+        return skip;
+    }
+
+    void preVisit(JmmNode node) {
+        int id = node.getKindId();
+        if (id >= preDispatch.length) {
+            preDispatch = Arrays.copyOf(preDispatch, Math.max(id + 1, JmmNodeKinds.getNumKinds()));
+        }
+        if (preDispatch[id] == null) {
+            preDispatch[id] = preVisits.getOrDefault(node.getKind(), defaultPreVisit);
+        }
+
+        preDispatch[id].accept(node);
+    }
+
+    void postVisit(JmmNode node) {
+        int id = node.getKindId();
+        if (id >= postDispatch.length) {
+            postDispatch = Arrays.copyOf(postDispatch, Math.max(id + 1, JmmNodeKinds.getNumKinds()));
+        }
+        if (postDispatch[id] == null) {
+            postDispatch[id] = postVisits.getOrDefault(node.getKind(), defaultPostVisit);
+        }
+
+        postDispatch[id].accept(node);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
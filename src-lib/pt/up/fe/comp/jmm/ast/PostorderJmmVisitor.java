@@ -30,25 +30,42 @@ public class PostorderJmmVisitor<D, R> extends AllNodesJmmVisitor<D, R> {
     public R visit(JmmNode jmmNode, D data) {
         SpecsCheck.checkNotNull(jmmNode, () -> "Node should not be null");
 
-        var visit = getVisit(jmmNode.getKind());
+        var reduceFunction = getReduce();
 
-        List<R> childrenResults = new ArrayList<>();
+        // The tree is walked with an explicit stack instead of recursion, deep trees do not overflow the call stack
+        var stack = new VisitStack<R>();
+        stack.push(jmmNode, null, newChildrenResults(jmmNode));
 
-        // Postorder: 1st visit each children
-        for (var child : jmmNode.getChildren()) {
-            childrenResults.add(visit(child, data));
-        }
+        while (true) {
+            // Postorder: 1st visit each children
+            var child = stack.nextChild();
+            if (child != null) {
+                stack.push(child, null, newChildrenResults(child));
+                continue;
+            }
 
-        // Postorder: then, visit the node
-        var nodeResult = visit.apply(jmmNode, data);
+            // Postorder: then, visit the node
+            var node = stack.node();
+            var result = getVisit(node).apply(node, data);
 
-        var reduceFunction = getReduce();
+            // No reduce function, just return result of the node
+            if (reduceFunction != null) {
+                result = reduceFunction.apply(result, stack.childrenResults());
+            }
 
-        // No reduce function, just return result of the node
-        if (reduceFunction == null) {
-            return nodeResult;
+            stack.pop();
+
+            if (stack.isEmpty()) {
+                return result;
+            }
+
+            if (reduceFunction != null) {
+                stack.childrenResults().add(result);
+            }
         }
+    }
 
-        return reduceFunction.apply(nodeResult, childrenResults);
+    private List<R> newChildrenResults(JmmNode node) {
+        return getReduce() == null ? null : new ArrayList<>(node.getNumChildren());
     }
 }
@@ -30,24 +30,39 @@ public class PreorderJmmVisitor<D, R> extends AllNodesJmmVisitor<D, R> {
     public R visit(JmmNode jmmNode, D data) {
         SpecsCheck.checkNotNull(jmmNode, () -> "Node should not be null");
 
-        var visit = getVisit(jmmNode.getKind());
+        var reduceFunction = getReduce();
+
+        // The tree is walked with an explicit stack instead of recursion, deep trees do not overflow the call stack
+        var stack = new VisitStack<R>();
 
         // Preorder: 1st visit the node
-        var nodeResult = visit.apply(jmmNode, data);
+        stack.push(jmmNode, getVisit(jmmNode).apply(jmmNode, data), newChildrenResults(jmmNode));
 
-        // Preorder: then, visit each children
-        List<R> childrenResults = new ArrayList<>();
-        for (var child : jmmNode.getChildren()) {
-            childrenResults.add(visit(child, data));
-        }
+        while (true) {
+            // Preorder: then, visit each children
+            var child = stack.nextChild();
+            if (child != null) {
+                stack.push(child, getVisit(child).apply(child, data), newChildrenResults(child));
+                continue;
+            }
 
-        var reduceFunction = getReduce();
+            // No reduce function, just return result of the node
+            var result = reduceFunction == null ? stack.nodeResult()
+                    : reduceFunction.apply(stack.nodeResult(), stack.childrenResults());
 
-        // No reduce function, just return result of the node
-        if (reduceFunction == null) {
-            return nodeResult;
+            stack.pop();
+
+            if (stack.isEmpty()) {
+                return result;
+            }
+
+            if (reduceFunction != null) {
+                stack.childrenResults().add(result);
+            }
         }
+    }
 
-        return reduceFunction.apply(nodeResult, childrenResults);
+    private List<R> newChildrenResults(JmmNode node) {
+        return getReduce() == null ? null : new ArrayList<>(node.getNumChildren());
     }
 }
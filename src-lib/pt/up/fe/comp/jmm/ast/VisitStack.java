@@ -0,0 +1,78 @@
+package pt.up.fe.comp.jmm.ast;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Explicit stack used by the visitors and writers of this package to walk the tree without recursion. Each entry is a
+ * node being visited, the index of the next child to visit and, when the visitor has a reduce function, the result of
+ * the node and the results of the children visited so far.
+ *
+ * @param <R>
+ */
+class VisitStack<R> {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private JmmNode[] nodes = new JmmNode[INITIAL_CAPACITY];
+    private int[] nextChild = new int[INITIAL_CAPACITY];
+    private Object[] nodeResults = new Object[INITIAL_CAPACITY];
+    private Object[] childrenResults = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void push(JmmNode node, R nodeResult, List<R> nodeChildrenResults) {
+        if (size == nodes.length) {
+            int capacity = size * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            nextChild = Arrays.copyOf(nextChild, capacity);
+            nodeResults = Arrays.copyOf(nodeResults, capacity);
+            childrenResults = Arrays.copyOf(childrenResults, capacity);
+        }
+
+        nodes[size] = node;
+        nextChild[size] = 0;
+        nodeResults[size] = nodeResult;
+        childrenResults[size] = nodeChildrenResults;
+        size++;
+    }
+
+    public void pop() {
+        size--;
+        nodes[size] = null;
+        nodeResults[size] = null;
+        childrenResults[size] = null;
+    }
+
+    public JmmNode node() {
+        return nodes[size - 1];
+    }
+
+    /**
+     * @return the next child of the node at the top, or null if all children were visited
+     */
+    public JmmNode nextChild() {
+        var node = nodes[size - 1];
+        int index = nextChild[size - 1];
+
+        if (index >= node.getNumChildren()) {
+            return null;
+        }
+
+        nextChild[size - 1] = index + 1;
+        return node.getJmmChild(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    public R nodeResult() {
+        return (R) nodeResults[size - 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<R> childrenResults() {
+        return (List<R>) childrenResults[size - 1];
+    }
+}
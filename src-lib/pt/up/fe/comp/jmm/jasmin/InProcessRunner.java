@@ -0,0 +1,377 @@
+package pt.up.fe.comp.jmm.jasmin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import pt.up.fe.specs.util.SpecsLogs;
+import pt.up.fe.specs.util.SpecsStrings;
+import pt.up.fe.specs.util.system.ProcessOutputAsString;
+import pt.up.fe.specs.util.utilities.StringLines;
+
+/**
+ * Runs compiled Java-- classes inside the current JVM.
+ *
+ * <p>
+ * Each run uses a new class loader with the class bytes and the given classpath (e.g. libs-jmm/compiled), so static
+ * state of the runtime classes is not shared between runs. The main method is called in a worker thread, whose
+ * System.in and System.out/err are redirected to the given input and to buffers, and which is abandoned if it does
+ * not finish before the timeout.
+ *
+ * <p>
+ * The result follows the same conventions as running the class with the java command: return value 0 on success, 1
+ * if main threw an exception, and -1 on timeout.
+ *
+ * <p>
+ * Since the program shares the JVM, a call to System.exit (e.g. by io.read, on invalid input) ends the whole JVM, and
+ * a program that does not finish can only be stopped on JDKs that still support Thread.stop (before JDK 20); on newer
+ * JDKs it keeps running as a daemon thread, writing to the original streams once the redirection is removed. This is
+ * why {@link JasminResult} only runs programs in-process when {@link JasminResult#RUN_IN_PROCESS} is set.
+ */
+public class InProcessRunner {
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+
+    private static final InheritableThreadLocal<ThreadStreams> THREAD_STREAMS = new InheritableThreadLocal<>();
+
+    // Runs that are using the redirection, and the streams to restore when the last one ends
+    private static int activeRuns = 0;
+    private static InputStream originalIn;
+    private static PrintStream originalOut;
+    private static PrintStream originalErr;
+
+    private final long timeoutNanos;
+
+    public InProcessRunner(long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Runs the main method of the given class.
+     *
+     * @param classBytes
+     *            bytes of the class file with the main method
+     * @param args
+     *            arguments for the main method
+     * @param classpath
+     *            paths to folders or jars with the classes the program uses
+     * @param input
+     *            input of the program, can be null
+     * @return the return value and the output that is printed by the program
+     */
+    public ProcessOutputAsString run(byte[] classBytes, List<String> args, List<String> classpath, String input) {
+        installRedirection();
+
+        var streams = new ThreadStreams(input);
+        boolean timedOut;
+        try {
+            timedOut = !execute(streams, classBytes, args, classpath);
+        } finally {
+            removeRedirection();
+        }
+
+        String stdout = toLines(streams.stdout.toString(Charset.defaultCharset()));
+        String stderr = toLines(streams.stderr.toString(Charset.defaultCharset()));
+
+        // Print the output, as done when running a separate process
+        System.out.print(stdout);
+        System.err.print(stderr);
+
+        return new ProcessOutputAsString(timedOut ? -1 : streams.returnValue, stdout, stderr);
+    }
+
+    /**
+     * @return true if the program finished before the timeout
+     */
+    private boolean execute(ThreadStreams streams, byte[] classBytes, List<String> args, List<String> classpath) {
+        var loader = new RunClassLoader(toUrls(classpath));
+
+        var worker = new Thread(() -> {
+            THREAD_STREAMS.set(streams);
+            streams.returnValue = invokeMain(loader, classBytes, args, streams.stderr);
+        }, "jmm-run");
+        worker.setDaemon(true);
+        worker.setContextClassLoader(loader);
+        worker.start();
+
+        if (!join(worker)) {
+            stop(worker);
+            SpecsLogs.info("Process timed out after " + SpecsStrings.parseTime(timeoutNanos));
+            return false;
+        }
+
+        close(loader);
+        return true;
+    }
+
+    private static int invokeMain(RunClassLoader loader, byte[] classBytes, List<String> args, OutputStream stderr) {
+        try {
+            var mainClass = loader.define(classBytes);
+            var main = mainClass.getMethod("main", String[].class);
+            if (!Modifier.isStatic(main.getModifiers())) {
+                throw new NoSuchMethodException("main method of class " + mainClass.getName() + " is not static");
+            }
+
+            main.invoke(null, (Object) args.toArray(new String[0]));
+            return 0;
+        } catch (InvocationTargetException e) {
+            printException(e.getCause(), stderr);
+            return 1;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            printException(e, stderr);
+            return 1;
+        }
+    }
+
+    private static void printException(Throwable e, OutputStream stderr) {
+        var stackTrace = new StringWriter();
+        e.printStackTrace(new PrintWriter(stackTrace));
+
+        var err = new PrintStream(stderr, true);
+        err.print("Exception in thread \"main\" ");
+        err.print(stackTrace);
+        err.flush();
+    }
+
+    private boolean join(Thread worker) {
+        try {
+            // join(0) would wait forever, so timeouts below one millisecond wait for one
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop(worker);
+            throw new RuntimeException("Interrupted while waiting for " + worker.getName());
+        }
+
+        return !worker.isAlive();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void stop(Thread worker) {
+        worker.interrupt();
+
+        // Programs in an infinite loop do not check for interruption
+        try {
+            worker.stop();
+        } catch (UnsupportedOperationException e) {
+            SpecsLogs.info("Could not stop " + worker.getName() + ", leaving it running as a daemon thread");
+        }
+    }
+
+    private static void close(URLClassLoader loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            SpecsLogs.info("Could not close class loader: " + e.getMessage());
+        }
+    }
+
+    private static URL[] toUrls(List<String> classpath) {
+        var urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = new File(classpath.get(i)).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw new RuntimeException("Invalid classpath element '" + classpath.get(i) + "'", e);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Normalizes line endings in the same way the output of a separate process is read.
+     */
+    private static String toLines(String output) {
+        var lines = new StringBuilder();
+        for (var line : StringLines.getLines(output)) {
+            lines.append(line).append(NEW_LINE);
+        }
+        return lines.toString();
+    }
+
+    /**
+     * Makes System.in, System.out and System.err forward to the streams of the current run, for threads that belong
+     * to a run, and to the original streams otherwise.
+     */
+    private static synchronized void installRedirection() {
+        if (activeRuns++ > 0) {
+            return;
+        }
+
+        originalIn = System.in;
+        originalOut = System.out;
+        originalErr = System.err;
+
+        System.setIn(new ThreadInputStream(originalIn));
+        System.setOut(new ThreadPrintStream(originalOut, false));
+        System.setErr(new ThreadPrintStream(originalErr, true));
+    }
+
+    /**
+     * Restores the original streams when no other run is using the redirection. Streams that were replaced by someone
+     * else in the meantime are left as they are.
+     */
+    private static synchronized void removeRedirection() {
+        if (--activeRuns > 0) {
+            return;
+        }
+
+        if (System.in instanceof ThreadInputStream) {
+            System.setIn(originalIn);
+        }
+        if (System.out instanceof ThreadPrintStream) {
+            System.setOut(originalOut);
+        }
+        if (System.err instanceof ThreadPrintStream) {
+            System.setErr(originalErr);
+        }
+
+        originalIn = null;
+        originalOut = null;
+        originalErr = null;
+    }
+
+    private static class ThreadStreams {
+        private final InputStream stdin;
+        private final ByteArrayOutputStream stdout;
+        private final ByteArrayOutputStream stderr;
+        private volatile int returnValue;
+
+        public ThreadStreams(String input) {
+            this.stdin = new LineInputStream(input == null ? "" : input);
+            this.stdout = new ByteArrayOutputStream();
+            this.stderr = new ByteArrayOutputStream();
+            this.returnValue = 0;
+        }
+    }
+
+    private static class RunClassLoader extends URLClassLoader {
+
+        public RunClassLoader(URL[] urls) {
+            // The platform class loader as parent isolates the program from the classes of the compiler
+            super(urls, ClassLoader.getPlatformClassLoader());
+        }
+
+        public Class<?> define(byte[] classBytes) {
+            return defineClass(null, classBytes, 0, classBytes.length);
+        }
+    }
+
+    /**
+     * Gives the input one line per read, as if it was being typed. Runtime classes such as io create a new
+     * BufferedReader for each read, and would otherwise lose the lines buffered by the previous one.
+     */
+    private static class LineInputStream extends InputStream {
+        private final byte[] bytes;
+        private int position;
+
+        public LineInputStream(String input) {
+            this.bytes = input.getBytes(Charset.defaultCharset());
+            this.position = 0;
+        }
+
+        @Override
+        public synchronized int read() {
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (position >= bytes.length) {
+                return -1;
+            }
+
+            int count = 0;
+            while (count < len && position < bytes.length) {
+                byte current = bytes[position++];
+                b[off + count++] = current;
+
+                if (current == '\n') {
+                    break;
+                }
+            }
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+
+    private static class ThreadInputStream extends InputStream {
+        private final InputStream original;
+
+        public ThreadInputStream(InputStream original) {
+            this.original = original;
+        }
+
+        private InputStream current() {
+            var streams = THREAD_STREAMS.get();
+            return streams != null ? streams.stdin : original;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return current().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return current().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return current().available();
+        }
+    }
+
+    private static class ThreadPrintStream extends PrintStream {
+
+        public ThreadPrintStream(PrintStream original, boolean isErr) {
+            super(new OutputStream() {
+                private OutputStream current() {
+                    var streams = THREAD_STREAMS.get();
+                    if (streams == null) {
+                        return original;
+                    }
+                    return isErr ? streams.stderr : streams.stdout;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    current().write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    current().write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    current().flush();
+                }
+            }, true);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -30,6 +31,12 @@ import pt.up.fe.specs.util.utilities.StringLines;
  */
 public class JasminResult implements ReportsProvider {
 
+    /**
+     * Config key that runs the compiled program inside the current JVM (see {@link InProcessRunner}) instead of in a
+     * new java process.
+     */
+    public static final String RUN_IN_PROCESS = "runInProcess";
+
     private static Long HUMAN_DELAY_MS = 250l;
     private static Long TIMEOUT_NS = 5_000_000_000l;
 
@@ -91,9 +98,20 @@ public class JasminResult implements ReportsProvider {
      * @return a reference to the .class file
      */
     public File compile(File outputDir) {
-        File jasminFile = new File(SpecsIo.getTempFolder("jasmin"), getClassName() + ".j");
-        SpecsIo.write(jasminFile, getJasminCode());
-        return JasminUtils.assemble(jasminFile, outputDir);
+        return JasminUtils.assemble(new StringReader(getJasminCode()), getSourceName(), outputDir);
+    }
+
+    /**
+     * Assembles the generated Jasmin code in memory, without writing any file.
+     * 
+     * @return the bytes of the class file
+     */
+    public byte[] assemble() {
+        return JasminUtils.assemble(getJasminCode(), getSourceName());
+    }
+
+    private String getSourceName() {
+        return getClassName() + ".j";
     }
 
     /**
@@ -127,7 +145,8 @@ public class JasminResult implements ReportsProvider {
     }
 
     /**
-     * Compiles and runs the current Jasmin code.
+     * Compiles and runs the current Jasmin code with a new java process. If the config {@link #RUN_IN_PROCESS} is
+     * "true", the class is assembled in memory and runs inside the current JVM instead (see {@link InProcessRunner}).
      * 
      * @param args
      *            arguments for the Jasmin program
@@ -139,6 +158,26 @@ public class JasminResult implements ReportsProvider {
      * @return the output that is printed by the Jasmin program
      */
     public ProcessOutputAsString runWithFullOutput(List<String> args, List<String> classpath, String input) {
+        if (config != null && "true".equals(config.get(RUN_IN_PROCESS))) {
+            return new InProcessRunner(TIMEOUT_NS).run(assemble(), args, classpath, input);
+        }
+
+        return runProcess(args, classpath, input);
+    }
+
+    /**
+     * Compiles the current Jasmin code and runs it with a new java process.
+     * 
+     * @param args
+     *            arguments for the Jasmin program
+     * @param classpath
+     *            additional paths for the classpath
+     * @param input
+     *            input to give to the program that will run
+     * 
+     * @return the output that is printed by the Jasmin program
+     */
+    private ProcessOutputAsString runProcess(List<String> args, List<String> classpath, String input) {
         // Compile
         var classFile = compile();
 
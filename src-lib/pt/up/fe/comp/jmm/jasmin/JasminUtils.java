@@ -1,11 +1,16 @@
 package pt.up.fe.comp.jmm.jasmin;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 
 import jas.jasError;
 import jasmin.ClassFile;
@@ -17,67 +22,160 @@ import jasmin.ClassFile;
  */
 public class JasminUtils {
     /**
-     * Extracted from Jasmin code
+     * Assembles a Jasmin file into a class file, placed in the output folder according to the package of the class.
+     * 
+     * @param inputFile
+     *            file with Jasmin code
+     * @param outputDir
+     *            the folder where the class file will be written
+     * @return a reference to the .class file
      */
     public static File assemble(File inputFile, File outputDir) {
+        try (Reader inp = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile)))) {
+            return write(readJasmin(inp, inputFile.getName()), outputDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Class could not be created: " + e.getMessage(), e);
+        }
+    }
 
-        try (FileInputStream fs = new FileInputStream(inputFile);
-                InputStreamReader ir = new InputStreamReader(fs);
-                BufferedReader inp = new BufferedReader(ir);) {
+    /**
+     * Assembles Jasmin code into a class file, without intermediate files.
+     * 
+     * @param input
+     *            reader with the Jasmin code
+     * @param sourceName
+     *            name of the source, used in messages and in the SourceFile attribute
+     * @param outputDir
+     *            the folder where the class file will be written
+     * @return a reference to the .class file
+     */
+    public static File assemble(Reader input, String sourceName, File outputDir) {
+        return write(readJasmin(input, sourceName), outputDir);
+    }
 
-            ClassFile classFile = new ClassFile();
-            classFile.readJasmin(inp, inputFile.getName(), true);
+    /**
+     * Assembles Jasmin code in memory.
+     * 
+     * @param jasminCode
+     * @param sourceName
+     *            name of the source, used in messages and in the SourceFile attribute
+     * @return the bytes of the class file
+     */
+    public static byte[] assemble(CharSequence jasminCode, String sourceName) {
+        return assemble(new StringReader(jasminCode.toString()), sourceName);
+    }
 
-            // if we got some errors, don't output a file - just return.
-            if (classFile.errorCount() > 0) {
-                throw new RuntimeException("Found "
-                        + classFile.errorCount() + " errors while compiling Jasmin code.");
+    /**
+     * Assembles Jasmin code in memory.
+     * 
+     * @param input
+     *            reader with the Jasmin code
+     * @param sourceName
+     *            name of the source, used in messages and in the SourceFile attribute
+     * @return the bytes of the class file
+     */
+    public static byte[] assemble(Reader input, String sourceName) {
+        return toBytes(readJasmin(input, sourceName));
+    }
 
-            }
+    /**
+     * Writes the bytes of a class file, placed in the output folder according to the package of the class.
+     * 
+     * @param className
+     *            name of the class, as in Jasmin (e.g. "pkg/Foo")
+     * @param classBytes
+     * @param outputDir
+     * @return a reference to the .class file
+     */
+    public static File write(String className, byte[] classBytes, File outputDir) {
+        File outFile = getClassFile(className, outputDir);
 
-            String class_path[] = (splitClassField(
-                    classFile.getClassName()));
-            String class_name = class_path[1];
+        try (OutputStream outp = new FileOutputStream(outFile)) {
+            outp.write(classBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Class could not be created: " + e.getMessage(), e);
+        }
 
-            // determine where to place this class file
-            // String dest_dir = dest_path;
-            if (class_path[0] != null) {
-                String class_dir = convertChars(
-                        class_path[0], "./",
-                        File.separatorChar);
-                outputDir = new File(outputDir, class_dir);
+        return outFile;
+    }
 
-            }
-            // iocause = class_name + ".class: file can't be created";
-            // if (dest_dir == null) {
-            // out_file = new File(class_name + ".class");
-            // } else {
-            File out_file = new File(outputDir, class_name + ".class");
+    private static File write(ClassFile classFile, File outputDir) {
+        File outFile = getClassFile(classFile.getClassName(), outputDir);
 
-            // check that dest_dir exists
+        try (OutputStream outp = new BufferedOutputStream(new FileOutputStream(outFile))) {
+            classFile.write(outp);
+        } catch (jasError e) {
+            throw new RuntimeException("JAS Error: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Class could not be created: " + e.getMessage(), e);
+        }
 
-            if (!outputDir.exists()) {
-                outputDir.mkdirs();
-            }
+        return outFile;
+    }
 
-            if (!outputDir.isDirectory()) {
-                throw new IOException(
-                        "Cannot create directory: " + outputDir.getAbsolutePath() + " is not a directory.");
-            }
+    private static ClassFile readJasmin(Reader input, String sourceName) {
+        ClassFile classFile = new ClassFile();
 
-            try (FileOutputStream outp = new FileOutputStream(out_file);) {
-                classFile.write(outp);
-            }
-            // System.out.println("Generated: " + out_file.getPath());
-            return out_file;
-        } catch (java.io.FileNotFoundException e) {
-            throw new RuntimeException("Class could not be created: " + e.getMessage(), e);
+        try {
+            classFile.readJasmin(input, sourceName, true);
         } catch (jasError e) {
             throw new RuntimeException("JAS Error: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException("Exception while assembling Jasmin file", e);
         }
 
+        // if we got some errors, don't output a file - just return.
+        if (classFile.errorCount() > 0) {
+            throw new RuntimeException("Found "
+                    + classFile.errorCount() + " errors while compiling Jasmin code.");
+        }
+
+        return classFile;
+    }
+
+    private static byte[] toBytes(ClassFile classFile) {
+        var bytes = new ByteArrayOutputStream();
+
+        try {
+            classFile.write(bytes);
+        } catch (jasError e) {
+            throw new RuntimeException("JAS Error: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Exception while assembling Jasmin file", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 
+     * @param className
+     * @param outputDir
+     * @return the class file for the given class, creating the package folders if needed
+     */
+    private static File getClassFile(String className, File outputDir) {
+        String class_path[] = splitClassField(className);
+        String class_name = class_path[1];
+
+        // determine where to place this class file
+        if (class_path[0] != null) {
+            String class_dir = convertChars(
+                    class_path[0], "./",
+                    File.separatorChar);
+            outputDir = new File(outputDir, class_dir);
+        }
+
+        // check that dest_dir exists
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+
+        if (!outputDir.isDirectory()) {
+            throw new RuntimeException(
+                    "Cannot create directory: " + outputDir.getAbsolutePath() + " is not a directory.");
+        }
+
+        return new File(outputDir, class_name + ".class");
     }
 
     //
@@ -3,6 +3,7 @@ package pt.up.fe.comp.jmm.ollir;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.specs.comp.ollir.ClassUnit;
 
@@ -17,16 +18,18 @@ import pt.up.fe.specs.util.SpecsCollections;
  */
 public class OllirResult implements ReportsProvider {
 
-    private final String ollirCode;
+    private final Supplier<String> ollirCodeSupplier;
+    private String ollirCode;
     private final ClassUnit ollirClass;
     private final SymbolTable symbolTable;
     private final List<Report> reports;
     private final Map<String, String> config;
 
-    private OllirResult(String ollirCode, ClassUnit ollirClass, SymbolTable symbolTable, List<Report> reports,
-            Map<String, String> config) {
+    private OllirResult(Supplier<String> ollirCode, ClassUnit ollirClass, SymbolTable symbolTable,
+            List<Report> reports, Map<String, String> config) {
 
-        this.ollirCode = ollirCode;
+        this.ollirCodeSupplier = ollirCode;
+        this.ollirCode = null;
         this.ollirClass = ollirClass;
         this.symbolTable = symbolTable;
         this.reports = reports;
@@ -34,6 +37,7 @@ public class OllirResult implements ReportsProvider {
     }
 
     public OllirResult(String ollirCode, Map<String, String> config) {
+        this.ollirCodeSupplier = () -> ollirCode;
         this.ollirCode = ollirCode;
         this.ollirClass = OllirUtils.parse(ollirCode);
         this.symbolTable = null;
@@ -49,11 +53,31 @@ public class OllirResult implements ReportsProvider {
      * @param reports
      */
     public OllirResult(JmmSemanticsResult semanticsResult, String ollirCode, List<Report> reports) {
-        this(ollirCode, OllirUtils.parse(ollirCode), semanticsResult.getSymbolTable(),
+        this(() -> ollirCode, OllirUtils.parse(ollirCode), semanticsResult.getSymbolTable(),
+                SpecsCollections.concat(semanticsResult.getReports(), reports), semanticsResult.getConfig());
+    }
+
+    /**
+     * Creates a new instance from the analysis stage results and an OLLIR class that was built directly, without
+     * parsing OLLIR code. The class is expected to have its var tables already built.
+     * 
+     * @param semanticsResult
+     * @param ollirClass
+     * @param ollirCode
+     *            generates the OLLIR code of the class, only called if the code is requested
+     * @param reports
+     */
+    public OllirResult(JmmSemanticsResult semanticsResult, ClassUnit ollirClass, Supplier<String> ollirCode,
+            List<Report> reports) {
+        this(ollirCode, ollirClass, semanticsResult.getSymbolTable(),
                 SpecsCollections.concat(semanticsResult.getReports(), reports), semanticsResult.getConfig());
     }
 
     public String getOllirCode() {
+        if (ollirCode == null) {
+            ollirCode = ollirCodeSupplier.get();
+        }
+
         return ollirCode;
     }
 
@@ -1,5 +1,6 @@
 package pt.up.fe.comp.jmm.parser;
 
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -10,7 +11,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.JmmSerializer;
+import pt.up.fe.comp.jmm.ast.JmmJsonAdapter;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportsProvider;
 
@@ -53,11 +54,23 @@ public class JmmParserResult implements ReportsProvider {
     }
 
     public String toJson() {
-        Gson gson = new GsonBuilder()
+        return newGson().toJson(this, JmmParserResult.class);
+    }
+
+    /**
+     * Writes the result as JSON, without building the whole document in memory.
+     * 
+     * @param writer
+     */
+    public void toJson(Writer writer) {
+        newGson().toJson(this, JmmParserResult.class, writer);
+    }
+
+    private static Gson newGson() {
+        return new GsonBuilder()
                 .setPrettyPrinting()
                 // .excludeFieldsWithoutExposeAnnotation()
-                .registerTypeAdapter(JmmNode.class, new JmmSerializer())
+                .registerTypeAdapter(JmmNode.class, new JmmJsonAdapter())
                 .create();
-        return gson.toJson(this, JmmParserResult.class);
     }
 }
@@ -0,0 +1,197 @@
+package pt.up.fe.comp;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import pt.up.fe.comp.cache.CompilationCache;
+import pt.up.fe.comp.jmm.jasmin.JasminUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.SpecsStrings;
+
+/**
+ * Compiles many Java-- files concurrently, writing the class files to an output folder.
+ *
+ * <p>
+ * A file that fails does not stop the others. The reports of each file are printed in the order of the inputs, as
+ * soon as that file and the ones before it are done.
+ */
+public class BatchCompiler {
+
+    private static final String JMM_EXTENSION = "jmm";
+
+    private final Map<String, String> config;
+    private final File outputDir;
+    private final int numThreads;
+    private final PrintStream out;
+    private final JmmCompiler compiler;
+    private final CompilationCache cache;
+
+    /**
+     * @param config
+     *            configuration shared by all files, "inputFile" is set for each of them
+     * @param outputDir
+     *            folder where the class files are written
+     * @param numThreads
+     *            number of files compiled at the same time
+     * @param out
+     *            where the reports of each file are printed
+     * @param cache
+     *            cache of compilation results, can be null
+     */
+    public BatchCompiler(Map<String, String> config, File outputDir, int numThreads, PrintStream out,
+            CompilationCache cache) {
+        if (numThreads < 1) {
+            throw new RuntimeException("Expected at least one thread, got " + numThreads);
+        }
+
+        this.config = config;
+        this.outputDir = outputDir;
+        this.numThreads = numThreads;
+        this.out = out;
+        this.compiler = new JmmCompiler();
+        this.cache = cache;
+    }
+
+    public BatchCompiler(Map<String, String> config, File outputDir, int numThreads, PrintStream out) {
+        this(config, outputDir, numThreads, out, null);
+    }
+
+    /**
+     * Finds the Java-- files in the given paths. Folders are searched recursively for .jmm files.
+     *
+     * @param paths
+     * @return the files to compile, in the order of the paths
+     */
+    public static List<File> getInputFiles(List<String> paths) {
+        List<File> inputFiles = new ArrayList<>();
+
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                List<File> folderFiles = new ArrayList<>(SpecsIo.getFilesRecursive(file, JMM_EXTENSION));
+                folderFiles.sort(null);
+                inputFiles.addAll(folderFiles);
+            } else if (file.isFile()) {
+                inputFiles.add(file);
+            } else {
+                throw new RuntimeException("Expected a path to an existing input file or folder, got '" + path + "'.");
+            }
+        }
+
+        return inputFiles;
+    }
+
+    /**
+     * Compiles the given files.
+     *
+     * @param inputFiles
+     * @return the result of each file, in the same order as the inputs
+     */
+    public List<CompilationResult> compile(List<File> inputFiles) {
+        long start = System.nanoTime();
+        SpecsIo.mkdir(outputDir);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, newThreadFactory());
+        List<Future<CompilationResult>> futures = new ArrayList<>();
+        try {
+            for (File inputFile : inputFiles) {
+                futures.add(executor.submit(() -> compile(inputFile)));
+            }
+
+            List<CompilationResult> results = new ArrayList<>();
+            Map<String, File> writtenClasses = new HashMap<>();
+            int numFailed = 0;
+            for (int i = 0; i < inputFiles.size(); i++) {
+                File inputFile = inputFiles.get(i);
+                CompilationResult result = getResult(futures.get(i));
+                printResult(inputFile, result);
+
+                // Class files are written in the order of the inputs, so that the last one wins if names repeat
+                if (result.isSuccess()) {
+                    File previousFile = writtenClasses.put(result.getClassName(), inputFile);
+                    if (previousFile != null) {
+                        out.println("    Class " + result.getClassName() + " of '" + previousFile
+                                + "' is replaced by this file");
+                    }
+                    JasminUtils.write(result.getClassName(), result.getClassBytes(), outputDir);
+                } else {
+                    numFailed++;
+                }
+                results.add(result);
+            }
+
+            out.println("Compiled " + (inputFiles.size() - numFailed) + " of " + inputFiles.size() + " files ("
+                    + numFailed + " failed) in " + SpecsStrings.parseTime(System.nanoTime() - start));
+            if (cache != null) {
+                out.println("Cache: " + cache.getStats());
+            }
+
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CompilationResult compile(File inputFile) {
+        Map<String, String> fileConfig = new HashMap<>(config);
+        fileConfig.put("inputFile", inputFile.getPath());
+
+        try {
+            String code = SpecsIo.read(inputFile);
+            return cache != null ? cache.compile(code, fileConfig) : compiler.compile(code, fileConfig);
+        } catch (RuntimeException e) {
+            return CompilationResult.newError(List.of(Report.newError(Stage.OTHER, -1, -1,
+                    "Could not compile file '" + inputFile + "'", e)));
+        }
+    }
+
+    private static CompilationResult getResult(Future<CompilationResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for batch compilation", e);
+        } catch (ExecutionException e) {
+            // Stack overflows and other errors are not turned into reports by the compiler
+            return CompilationResult.newError(List.of(Report.newError(Stage.OTHER, -1, -1,
+                    "Unexpected error during compilation", toException(e.getCause()))));
+        }
+    }
+
+    private static Exception toException(Throwable throwable) {
+        return throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+    }
+
+    private void printResult(File inputFile, CompilationResult result) {
+        if (result.isSuccess()) {
+            out.println("[OK] " + inputFile + " -> " + result.getClassName() + ".class");
+        } else {
+            out.println("[FAILED] " + inputFile);
+        }
+
+        for (Report report : result.getReports()) {
+            out.println("    " + report);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "jmm-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
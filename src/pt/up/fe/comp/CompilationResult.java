@@ -0,0 +1,74 @@
+package pt.up.fe.comp;
+
+import java.util.List;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.ReportsProvider;
+
+/**
+ * Result of compiling a single Java-- file: the reports of every stage that ran and, if there were no errors, the
+ * bytes of the generated class file.
+ */
+public class CompilationResult implements ReportsProvider {
+
+    private final String className;
+    private final byte[] classBytes;
+    private final List<Report> reports;
+    private final String ollirCode;
+    private final String jasminCode;
+
+    public CompilationResult(String className, byte[] classBytes, List<Report> reports, String ollirCode,
+            String jasminCode) {
+        this.className = className;
+        this.classBytes = classBytes;
+        this.reports = reports;
+        this.ollirCode = ollirCode;
+        this.jasminCode = jasminCode;
+    }
+
+    public CompilationResult(String className, byte[] classBytes, List<Report> reports) {
+        this(className, classBytes, reports, null, null);
+    }
+
+    public static CompilationResult newError(List<Report> reports) {
+        return new CompilationResult(null, null, reports);
+    }
+
+    /**
+     * @return The name of the compiled class, or null if compilation did not reach code generation
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return The bytes of the class file, or null if compilation failed
+     */
+    public byte[] getClassBytes() {
+        return classBytes;
+    }
+
+    /**
+     * @return The OLLIR code, if the compilation was configured to keep intermediate code, or null
+     */
+    public String getOllirCode() {
+        return ollirCode;
+    }
+
+    /**
+     * @return The Jasmin code, if the compilation was configured to keep intermediate code, or null
+     */
+    public String getJasminCode() {
+        return jasminCode;
+    }
+
+    @Override
+    public List<Report> getReports() {
+        return reports;
+    }
+
+    public boolean isSuccess() {
+        return classBytes != null && reports.stream().noneMatch(report -> report.getType() == ReportType.ERROR);
+    }
+}
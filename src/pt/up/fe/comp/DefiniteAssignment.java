@@ -0,0 +1,202 @@
+package pt.up.fe.comp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+/**
+ * Definite assignment of the variables of a method: for each assignment statement, the variables that were assigned
+ * on every path from the start of the method to that statement, before its right-hand side is evaluated.
+ *
+ * <p>
+ * The method is turned into a control-flow graph of blocks of assignments, with a branch for each if and a loop for
+ * each while, and a forward must-assign dataflow analysis is run over it, with a bitset per block whose bits are the
+ * variables assigned in the method. An assignment to an element of an array counts as an assignment of the array.
+ *
+ * <p>
+ * The analysis is done once, when the object is created. Queries take constant time.
+ */
+class DefiniteAssignment {
+
+    /**
+     * Basic block: assignments that always run in sequence.
+     */
+    private static class Block {
+        private final List<JmmNode> assignments = new ArrayList<>();
+        private final List<Block> predecessors = new ArrayList<>();
+        private final BitSet assigned = new BitSet();
+        private BitSet out;
+    }
+
+    // Index of each assigned variable in the bitsets
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<Block> blocks = new ArrayList<>();
+
+    // Variables assigned before each assignment statement, shared by statements with the same variables
+    private final Map<JmmNode, BitSet> assignedBefore = new HashMap<>();
+
+    /**
+     * @param method
+     *            an InstanceMethod or MainMethod
+     */
+    DefiniteAssignment(JmmNode method) {
+        Block current = newBlock();
+        for (var child : method.getChildrenView()) {
+            current = addStatement(child, current);
+        }
+
+        solve();
+        recordAssignments();
+    }
+
+    /**
+     * @param assignment
+     *            an AssignmentStatement of the method
+     * @param name
+     * @return true if the variable is assigned on every path that reaches the right-hand side of the assignment
+     */
+    boolean isAssigned(JmmNode assignment, String name) {
+        Integer slot = slots.get(name);
+        var assigned = assignedBefore.get(assignment);
+        return slot != null && assigned != null && assigned.get(slot);
+    }
+
+    private Block newBlock() {
+        var block = new Block();
+        blocks.add(block);
+        return block;
+    }
+
+    private static void addEdge(Block from, Block to) {
+        to.predecessors.add(from);
+    }
+
+    /**
+     * Adds the statement to the graph, starting in the given block.
+     *
+     * @return the block where the code after the statement continues
+     */
+    private Block addStatement(JmmNode statement, Block current) {
+        switch (statement.getKind()) {
+        case "AssignmentStatement":
+            current.assignments.add(statement);
+            current.assigned.set(getSlot(statement));
+            return current;
+        case "CurlyStatement":
+        case "IfBody":
+        case "ElseStatement":
+        case "WhileBody":
+            for (var child : statement.getChildrenView()) {
+                current = addStatement(child, current);
+            }
+            return current;
+        case "IfStatement": {
+            // Conditions have no assignments, they are part of the current block
+            var thenBlock = newBlock();
+            addEdge(current, thenBlock);
+            var thenEnd = addStatement(statement.getJmmChild(1), thenBlock);
+
+            var elseBlock = newBlock();
+            addEdge(current, elseBlock);
+            var elseEnd = addStatement(statement.getJmmChild(2), elseBlock);
+
+            var join = newBlock();
+            addEdge(thenEnd, join);
+            addEdge(elseEnd, join);
+            return join;
+        }
+        case "WhileStatement": {
+            var condition = newBlock();
+            addEdge(current, condition);
+
+            var body = newBlock();
+            addEdge(condition, body);
+            var bodyEnd = addStatement(statement.getJmmChild(1), body);
+            addEdge(bodyEnd, condition);
+
+            var exit = newBlock();
+            addEdge(condition, exit);
+            return exit;
+        }
+        default:
+            // Declarations and expressions do not assign variables
+            return current;
+        }
+    }
+
+    private int getSlot(JmmNode assignment) {
+        var target = assignment.getJmmChild(0);
+        if (target.getKind().equals("Index")) {
+            target = target.getJmmChild(0);
+        }
+
+        return slots.computeIfAbsent(target.get("name"), name -> slots.size());
+    }
+
+    /**
+     * Computes the variables assigned at the end of each block, until nothing changes. Blocks are created in the order
+     * of the code, so only loops need more than one pass.
+     */
+    private void solve() {
+        var all = new BitSet();
+        all.set(0, slots.size());
+
+        // The first block is the start of the method, nothing is assigned before it
+        blocks.get(0).out = (BitSet) blocks.get(0).assigned.clone();
+        for (int i = 1; i < blocks.size(); i++) {
+            blocks.get(i).out = (BitSet) all.clone();
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int i = 1; i < blocks.size(); i++) {
+                var block = blocks.get(i);
+                var out = getIn(block);
+                out.or(block.assigned);
+
+                if (!out.equals(block.out)) {
+                    block.out = out;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variables assigned on every path that reaches the block
+     */
+    private BitSet getIn(Block block) {
+        if (block.predecessors.isEmpty()) {
+            return new BitSet();
+        }
+
+        var in = (BitSet) block.predecessors.get(0).out.clone();
+        for (int i = 1; i < block.predecessors.size(); i++) {
+            in.and(block.predecessors.get(i).out);
+        }
+        return in;
+    }
+
+    private void recordAssignments() {
+        for (var block : blocks) {
+            var assigned = getIn(block);
+
+            for (var assignment : block.assignments) {
+                assignedBefore.put(assignment, assigned);
+
+                int slot = getSlot(assignment);
+                if (!assigned.get(slot)) {
+                    // Statements before this one keep their bitset
+                    assigned = (BitSet) assigned.clone();
+                    assigned.set(slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package pt.up.fe.comp;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+/**
+ * An immutable copy of a {@link SymbolTableBuilder}, see {@link SymbolTableBuilder#freeze()}. It can be shared by
+ * several threads without synchronization.
+ *
+ * <p>
+ * Besides the lists of {@link SymbolTable}, the table has hash indices: methods and imports by name, and the
+ * {@link MethodScope} of each method, built when the table is frozen. The lists of imports and methods use the
+ * indices, so {@code getMethods().contains(name)} does not scan the list. Variables, fields included, are looked up
+ * through the scopes.
+ */
+public final class FrozenSymbolTable implements SymbolTable {
+    private final String className;
+    private final String superClass;
+    private final List<String> imports;
+    private final List<String> methods;
+    private final List<Symbol> fields;
+    private final Map<String, Type> methodReturnTypes;
+    private final Map<String, List<Symbol>> methodParams;
+    private final Map<String, List<Symbol>> methodLocals;
+
+    private final Map<String, MethodScope> scopes;
+    private final MethodScope classScope;
+
+    FrozenSymbolTable(SymbolTable table) {
+        this.className = table.getClassName();
+        this.superClass = table.getSuper();
+        this.imports = new IndexedList<>(table.getImports());
+        this.methods = new IndexedList<>(table.getMethods());
+        this.fields = copy(table.getFields());
+
+        Map<String, Type> methodReturnTypes = new HashMap<>();
+        Map<String, List<Symbol>> methodParams = new HashMap<>();
+        Map<String, List<Symbol>> methodLocals = new HashMap<>();
+        for (String method : methods) {
+            methodReturnTypes.put(method, table.getReturnType(method));
+            methodParams.put(method, copy(table.getParameters(method)));
+            methodLocals.put(method, copy(table.getLocalVariables(method)));
+        }
+        this.methodReturnTypes = Collections.unmodifiableMap(methodReturnTypes);
+        this.methodParams = Collections.unmodifiableMap(methodParams);
+        this.methodLocals = Collections.unmodifiableMap(methodLocals);
+
+        // Scopes only read the lists above
+        Map<String, MethodScope> scopes = new HashMap<>();
+        for (String method : methods) {
+            scopes.put(method, new MethodScope(this, method));
+        }
+        this.scopes = Collections.unmodifiableMap(scopes);
+        this.classScope = new MethodScope(this, null);
+    }
+
+    private static <T> List<T> copy(List<T> list) {
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    @Override
+    public List<String> getImports() {
+        return imports;
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public String getSuper() {
+        return superClass;
+    }
+
+    @Override
+    public List<Symbol> getFields() {
+        return fields;
+    }
+
+    @Override
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    @Override
+    public Type getReturnType(String methodSignature) {
+        return methodReturnTypes.get(methodSignature);
+    }
+
+    @Override
+    public List<Symbol> getParameters(String methodSignature) {
+        return methodParams.get(methodSignature);
+    }
+
+    @Override
+    public List<Symbol> getLocalVariables(String methodSignature) {
+        return methodLocals.get(methodSignature);
+    }
+
+    /**
+     * @param methodSignature
+     *            the method, or null for the scope outside methods
+     * @return the variables that can be used in the method. Unknown methods only see the fields
+     */
+    public MethodScope getScope(String methodSignature) {
+        if (methodSignature == null) {
+            return classScope;
+        }
+
+        return scopes.getOrDefault(methodSignature, classScope);
+    }
+
+    @Override
+    public String toString() {
+        return "FrozenSymbolTable{" +
+                "className='" + className + '\'' +
+                ", superClass='" + superClass + '\'' +
+                ", imports=" + imports +
+                ", methods=" + methods +
+                ", methodReturnTypes=" + methodReturnTypes +
+                ", methodParams=" + methodParams +
+                ", methodLocals=" + methodLocals +
+                ", fields=" + fields +
+                '}';
+    }
+
+    /**
+     * An unmodifiable list with a hash index from each element to its first position.
+     */
+    private static final class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+        private final List<T> elements;
+        private final Map<Object, Integer> positions;
+
+        private IndexedList(List<T> elements) {
+            this.elements = new ArrayList<>(elements);
+            this.positions = new HashMap<>();
+            for (int i = 0; i < this.elements.size(); i++) {
+                positions.putIfAbsent(this.elements.get(i), i);
+            }
+        }
+
+        @Override
+        public T get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public int indexOf(Object element) {
+            return positions.getOrDefault(element, -1);
+        }
+
+        @Override
+        public boolean contains(Object element) {
+            return positions.containsKey(element);
+        }
+    }
+}
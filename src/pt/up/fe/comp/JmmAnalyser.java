@@ -1,26 +1,88 @@
 package pt.up.fe.comp;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import pt.up.fe.comp.jmm.analysis.JmmAnalysis;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.FusedJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 
 public class JmmAnalyser implements JmmAnalysis {
+
+    /**
+     * Config key, if "true" the methods of the class are analysed in parallel, after the symbol table is filled
+     */
+    public static final String PARALLEL_ANALYSIS = "parallelAnalysis";
+
     @Override
     public JmmSemanticsResult semanticAnalysis(JmmParserResult parserResult) {
-        var symbolTable = new SymbolTableBuilder();
+        var symbolTableBuilder = new SymbolTableBuilder();
         SymbolTableFiller symbolTableFiller = new SymbolTableFiller();
-        symbolTableFiller.visit(parserResult.getRootNode(), symbolTable);
+        symbolTableFiller.visit(parserResult.getRootNode(), symbolTableBuilder);
 
-        VisitorSemantic visitorSemantic = new VisitorSemantic(symbolTable);
-        visitorSemantic.visit(parserResult.getRootNode(), symbolTable);
+        // The table does not change after this point, and is shared by the tasks of the parallel analysis
+        var symbolTable = symbolTableBuilder.freeze();
+
+        // Later stages look up the enclosing method and class of nodes, and the type of expressions
+        var scopeAnnotator = new ScopeAnnotator();
+        var typeAnnotator = new TypeAnnotator(symbolTable);
+        typeAnnotator.runAfter(scopeAnnotator);
+        new FusedJmmVisitor().addPass(scopeAnnotator).addPass(typeAnnotator).visit(parserResult.getRootNode());
 
         List<Report> reports = new ArrayList<>(symbolTableFiller.getReports());
-        reports.addAll(visitorSemantic.getReports());
+        var config = parserResult.getConfig();
+        if (config != null && "true".equals(config.get(PARALLEL_ANALYSIS))) {
+            reports.addAll(analyseInParallel(parserResult.getRootNode(), symbolTable));
+        } else {
+            reports.addAll(analyse(parserResult.getRootNode(), symbolTable));
+        }
+
         return new JmmSemanticsResult(parserResult, symbolTable, reports);
     }
+
+    private static List<Report> analyse(JmmNode node, SymbolTable symbolTable) {
+        VisitorSemantic visitorSemantic = new VisitorSemantic(symbolTable);
+        visitorSemantic.visit(node, symbolTable);
+        return visitorSemantic.getReports();
+    }
+
+    /**
+     * Checks each method, and each declaration outside methods, in a separate task on the common fork-join pool. The
+     * frozen symbol table and the tree are only read, and each task reports to its own list. The lists are joined in source
+     * order, so the reports are the same as when analysing sequentially.
+     */
+    private static List<Report> analyseInParallel(JmmNode root, SymbolTable symbolTable) {
+        List<ForkJoinTask<List<Report>>> tasks = new ArrayList<>();
+        for (JmmNode unit : getUnits(root)) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> analyse(unit, symbolTable)));
+        }
+
+        List<Report> reports = new ArrayList<>();
+        for (ForkJoinTask<List<Report>> task : tasks) {
+            reports.addAll(task.join());
+        }
+        return reports;
+    }
+
+    /**
+     * @return the children of the root and of the class declaration, in source order. The root and the class
+     *         declaration themselves have no checks
+     */
+    private static List<JmmNode> getUnits(JmmNode root) {
+        List<JmmNode> units = new ArrayList<>();
+        for (JmmNode child : root.getChildrenView()) {
+            if (child.getKind().equals("ClassDeclaration")) {
+                units.addAll(child.getChildrenView());
+            } else {
+                units.add(child);
+            }
+        }
+        return units;
+    }
 }
@@ -0,0 +1,108 @@
+package pt.up.fe.comp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import pt.up.fe.comp.jasmin.JasminEmitter;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp.ollir.JmmOptimizer;
+
+/**
+ * Runs the same stages as the {@link Launcher} on a single Java-- file, but instead of throwing at the first error it
+ * stops and returns the reports collected so far. Exceptions thrown by a stage become an error report of that stage.
+ *
+ * <p>
+ * Every call creates its own stage instances, so a single JmmCompiler can be used by several threads.
+ */
+public class JmmCompiler {
+
+    /**
+     * Config key, if "true" the results also have the OLLIR and Jasmin code
+     */
+    public static final String KEEP_INTERMEDIATE = "keepIntermediate";
+
+    public CompilationResult compile(String code, Map<String, String> config) {
+        // The result of each stage already includes the reports of the previous ones
+        List<Report> reports = new ArrayList<>();
+
+        // Parse stage
+        JmmParserResult parserResult;
+        try {
+            parserResult = new SimpleParser().parse(code, config);
+        } catch (RuntimeException e) {
+            return newError(reports, Stage.SYNTATIC, "Exception during parsing", e);
+        }
+
+        reports = parserResult.getReports();
+        if (hasErrors(reports) || parserResult.getRootNode() == null) {
+            return CompilationResult.newError(reports);
+        }
+
+        // Analysis stage
+        JmmSemanticsResult analysisResult;
+        try {
+            analysisResult = new JmmAnalyser().semanticAnalysis(parserResult);
+        } catch (RuntimeException e) {
+            return newError(reports, Stage.SEMANTIC, "Exception during semantic analysis", e);
+        }
+
+        reports = analysisResult.getReports();
+        if (hasErrors(reports)) {
+            return CompilationResult.newError(reports);
+        }
+
+        // OLLIR stage
+        OllirResult ollirResult;
+        try {
+            ollirResult = new JmmOptimizer().toOllir(analysisResult);
+        } catch (RuntimeException e) {
+            return newError(reports, Stage.LLIR, "Exception during OLLIR generation", e);
+        }
+
+        reports = ollirResult.getReports();
+        if (hasErrors(reports)) {
+            return CompilationResult.newError(reports);
+        }
+
+        // Jasmin stage
+        JasminResult jasminResult;
+        byte[] classBytes;
+        try {
+            jasminResult = new JasminEmitter().toJasmin(ollirResult);
+            classBytes = hasErrors(jasminResult.getReports()) ? null : jasminResult.assemble();
+        } catch (RuntimeException e) {
+            return newError(reports, Stage.GENERATION, "Exception during Jasmin generation", e);
+        }
+
+        if (!"true".equals(config.get(KEEP_INTERMEDIATE))) {
+            return new CompilationResult(jasminResult.getClassName(), classBytes, jasminResult.getReports());
+        }
+
+        String ollirCode;
+        try {
+            ollirCode = ollirResult.getOllirCode();
+        } catch (RuntimeException e) {
+            return newError(jasminResult.getReports(), Stage.LLIR, "Exception during OLLIR code generation", e);
+        }
+
+        return new CompilationResult(jasminResult.getClassName(), classBytes, jasminResult.getReports(),
+                ollirCode, jasminResult.getJasminCode());
+    }
+
+    private static CompilationResult newError(List<Report> reports, Stage stage, String message, Exception e) {
+        List<Report> errorReports = new ArrayList<>(reports);
+        errorReports.add(Report.newError(stage, -1, -1, message, e));
+        return CompilationResult.newError(errorReports);
+    }
+
+    private static boolean hasErrors(List<Report> reports) {
+        return reports.stream().anyMatch(report -> report.getType() == ReportType.ERROR);
+    }
+}
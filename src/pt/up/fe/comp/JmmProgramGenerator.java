@@ -0,0 +1,463 @@
+package pt.up.fe.comp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates valid, type-correct Java-- programs of configurable size, for stress tests and benchmarks. The same seed
+ * and settings always produce the same program.
+ *
+ * <p>
+ * Besides being accepted by every stage of the compiler, the generated programs terminate when run: loops have a
+ * constant trip count, divisors are non-zero literals, array indexes are either literals or loop counters smaller than
+ * the size of every array, and a method only calls methods declared before it, outside of loops.
+ *
+ * <p>
+ * The programs only use constructs the semantic analysis accepts, e.g. array indexes are always literals or
+ * variables, and every variable is assigned in a line before the line where it is first read.
+ */
+public class JmmProgramGenerator {
+
+    private static final String CLASS_NAME = "Synthetic";
+
+    // Length of every array, and upper bound of every loop
+    private static final int ARRAY_SIZE = 8;
+    private static final int LOOP_TRIPS = 3;
+
+    // Precedence levels of the grammar, from the loosest to the tightest
+    private static final int PREC_AND = 1;
+    private static final int PREC_LT = 2;
+    private static final int PREC_ADD = 3;
+    private static final int PREC_MULT = 4;
+    private static final int PREC_NOT = 5;
+    private static final int PREC_TERMINAL = 6;
+
+    private enum VarType {
+        INT("int"),
+        BOOLEAN("boolean"),
+        ARRAY("int[]");
+
+        private final String code;
+
+        private VarType(String code) {
+            this.code = code;
+        }
+    }
+
+    private static class Var {
+        private final String name;
+        private final VarType type;
+
+        private Var(String name, VarType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private static class Method {
+        private final String name;
+        private final VarType returnType;
+        private final List<Var> params;
+
+        private Method(String name, VarType returnType, List<Var> params) {
+            this.name = name;
+            this.returnType = returnType;
+            this.params = params;
+        }
+    }
+
+    private static class Expr {
+        private final String code;
+        private final int precedence;
+
+        private Expr(String code, int precedence) {
+            this.code = code;
+            this.precedence = precedence;
+        }
+
+        private String atLeast(int minPrecedence) {
+            return precedence >= minPrecedence ? code : "(" + code + ")";
+        }
+    }
+
+    private int numMethods = 10;
+    private int statementsPerMethod = 10;
+    private int expressionDepth = 3;
+    private int loopNesting = 2;
+    private int numFields = 3;
+    private int numImports = 1;
+
+    // State of the program being generated
+    private Random random;
+    private StringBuilder code;
+    private List<Var> fields;
+    private List<Method> methods;
+    private List<Var> variables;
+    private List<Var> counters;
+    private int activeLoops;
+
+    /**
+     * @param numMethods
+     *            number of instance methods, besides main
+     */
+    public JmmProgramGenerator setNumMethods(int numMethods) {
+        this.numMethods = numMethods;
+        return this;
+    }
+
+    /**
+     * @param statementsPerMethod
+     *            number of statements in the body of each method, not counting the ones nested in ifs and loops
+     */
+    public JmmProgramGenerator setStatementsPerMethod(int statementsPerMethod) {
+        this.statementsPerMethod = statementsPerMethod;
+        return this;
+    }
+
+    /**
+     * @param expressionDepth
+     *            maximum depth of the operators in an expression
+     */
+    public JmmProgramGenerator setExpressionDepth(int expressionDepth) {
+        this.expressionDepth = expressionDepth;
+        return this;
+    }
+
+    /**
+     * @param loopNesting
+     *            maximum number of nested loops
+     */
+    public JmmProgramGenerator setLoopNesting(int loopNesting) {
+        this.loopNesting = loopNesting;
+        return this;
+    }
+
+    public JmmProgramGenerator setNumFields(int numFields) {
+        this.numFields = numFields;
+        return this;
+    }
+
+    /**
+     * @param numImports
+     *            number of imports, including the import of 'io', which is always present
+     */
+    public JmmProgramGenerator setNumImports(int numImports) {
+        this.numImports = numImports;
+        return this;
+    }
+
+    public String generate(long seed) {
+        random = new Random(seed);
+        code = new StringBuilder();
+        fields = new ArrayList<>();
+        methods = new ArrayList<>();
+
+        code.append("import io;\n");
+        for (int i = 1; i < numImports; i++) {
+            code.append("import lib").append(i).append(".Lib").append(i).append(";\n");
+        }
+
+        code.append("\nclass ").append(CLASS_NAME).append(" {\n");
+
+        for (int i = 0; i < numFields; i++) {
+            var field = new Var("f" + i, randomType());
+            fields.add(field);
+            code.append("\t").append(field.type.code).append(" ").append(field.name).append(";\n");
+        }
+
+        for (int i = 0; i < numMethods; i++) {
+            List<Var> params = new ArrayList<>();
+            int numParams = random.nextInt(4);
+            for (int j = 0; j < numParams; j++) {
+                params.add(new Var("p" + j, randomType()));
+            }
+
+            var returnType = random.nextInt(4) == 0 ? VarType.BOOLEAN : VarType.INT;
+            var method = new Method("m" + i, returnType, params);
+            generateMethod(method);
+            methods.add(method);
+        }
+
+        generateMain();
+
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private void generateMethod(Method method) {
+        code.append("\n\tpublic ").append(method.returnType.code).append(" ").append(method.name).append("(");
+        for (int i = 0; i < method.params.size(); i++) {
+            Var param = method.params.get(i);
+            code.append(i == 0 ? "" : ", ").append(param.type.code).append(" ").append(param.name);
+        }
+        code.append(") {\n");
+
+        variables = new ArrayList<>(fields);
+        variables.addAll(method.params);
+        counters = new ArrayList<>();
+        activeLoops = 0;
+
+        declareLocals();
+
+        // Array fields may not have been initialized yet
+        for (Var field : fields) {
+            if (field.type == VarType.ARRAY) {
+                line(2, field.name + " = new int[" + ARRAY_SIZE + "];");
+            }
+        }
+
+        // Calls the methods declared before, so that there is no recursion
+        int callAt = methods.isEmpty() ? -1 : random.nextInt(statementsPerMethod + 1);
+        for (int i = 0; i < statementsPerMethod; i++) {
+            if (i == callAt) {
+                generateCall(2);
+            } else {
+                generateStatement(2, statementsPerMethod);
+            }
+        }
+
+        line(2, "return " + expression(method.returnType, expressionDepth).code + ";");
+        code.append("\t}\n");
+    }
+
+    private void generateMain() {
+        code.append("\n\tpublic static void main(String[] args) {\n");
+
+        variables = new ArrayList<>();
+        counters = new ArrayList<>();
+        activeLoops = 0;
+
+        line(2, CLASS_NAME + " obj;");
+        declareLocals();
+        line(2, "obj = new " + CLASS_NAME + "();");
+
+        for (int i = 0; i < statementsPerMethod; i++) {
+            generateStatement(2, statementsPerMethod);
+        }
+
+        // Calls the last method, which calls the ones before
+        for (int i = Math.max(0, methods.size() - 3); i < methods.size(); i++) {
+            Method method = methods.get(i);
+            String call = "obj." + method.name + "(" + arguments(method) + ")";
+            if (method.returnType == VarType.INT) {
+                line(2, "io.println(" + call + ");");
+            } else {
+                line(2, pick(VarType.BOOLEAN).name + " = " + call + ";");
+            }
+        }
+
+        for (Var variable : variables) {
+            if (variable.type == VarType.INT) {
+                line(2, "io.println(" + variable.name + ");");
+            }
+        }
+
+        code.append("\t}\n");
+    }
+
+    /**
+     * Declares and initializes the locals of a method: at least one variable of each type, and one counter per loop
+     * level.
+     */
+    private void declareLocals() {
+        List<Var> locals = new ArrayList<>();
+        for (VarType type : VarType.values()) {
+            int numLocals = 1 + random.nextInt(3);
+            for (int i = 0; i < numLocals; i++) {
+                locals.add(new Var("l" + type.name().charAt(0) + i, type));
+            }
+        }
+
+        for (int i = 0; i < loopNesting; i++) {
+            counters.add(new Var("c" + i, VarType.INT));
+        }
+
+        for (Var local : locals) {
+            line(2, local.type.code + " " + local.name + ";");
+        }
+        for (Var counter : counters) {
+            line(2, "int " + counter.name + ";");
+        }
+
+        for (Var local : locals) {
+            switch (local.type) {
+            case INT:
+                line(2, local.name + " = " + random.nextInt(100) + ";");
+                break;
+            case BOOLEAN:
+                line(2, local.name + " = " + random.nextBoolean() + ";");
+                break;
+            case ARRAY:
+                line(2, local.name + " = new int[" + ARRAY_SIZE + "];");
+                break;
+            }
+        }
+        for (Var counter : counters) {
+            line(2, counter.name + " = 0;");
+        }
+
+        variables.addAll(locals);
+    }
+
+    private void generateStatement(int indent, int budget) {
+        int choice = random.nextInt(10);
+
+        if (choice < 2 && budget > 1) {
+            generateIf(indent, budget);
+        } else if (choice < 4 && budget > 1 && activeLoops < loopNesting) {
+            generateWhile(indent, budget);
+        } else if (choice < 5) {
+            line(indent, "io.println(" + expression(VarType.INT, expressionDepth).code + ");");
+        } else if (choice < 6 && activeLoops > 0) {
+            Var array = pick(VarType.ARRAY);
+            Var index = counters.get(random.nextInt(activeLoops));
+            line(indent, array.name + "[" + index.name + "] = " + expression(VarType.INT, expressionDepth).code
+                    + ";");
+        } else {
+            VarType type = random.nextInt(3) == 0 ? VarType.BOOLEAN : VarType.INT;
+            line(indent, pick(type).name + " = " + expression(type, expressionDepth).code + ";");
+        }
+    }
+
+    private void generateIf(int indent, int budget) {
+        line(indent, "if (" + expression(VarType.BOOLEAN, expressionDepth).code + ") {");
+        generateBlock(indent + 1, budget);
+        line(indent, "} else {");
+        generateBlock(indent + 1, budget);
+        line(indent, "}");
+    }
+
+    private void generateWhile(int indent, int budget) {
+        Var counter = counters.get(activeLoops);
+
+        line(indent, counter.name + " = 0;");
+        line(indent, "while (" + counter.name + " < " + LOOP_TRIPS + ") {");
+        activeLoops++;
+        generateBlock(indent + 1, budget);
+        activeLoops--;
+        line(indent + 1, counter.name + " = " + counter.name + " + 1;");
+        line(indent, "}");
+    }
+
+    private void generateBlock(int indent, int budget) {
+        int numStatements = 1 + random.nextInt(Math.min(3, budget / 2));
+        for (int i = 0; i < numStatements; i++) {
+            generateStatement(indent, budget / 2);
+        }
+    }
+
+    private void generateCall(int indent) {
+        Method method = methods.get(random.nextInt(methods.size()));
+        line(indent, pick(method.returnType).name + " = this." + method.name + "(" + arguments(method) + ");");
+    }
+
+    private String arguments(Method method) {
+        List<String> arguments = new ArrayList<>();
+        for (Var param : method.params) {
+            arguments.add(param.type == VarType.ARRAY ? pick(VarType.ARRAY).name
+                    : expression(param.type, expressionDepth).code);
+        }
+
+        return String.join(", ", arguments);
+    }
+
+    private VarType randomType() {
+        return VarType.values()[random.nextInt(VarType.values().length)];
+    }
+
+    private Expr expression(VarType type, int depth) {
+        return type == VarType.BOOLEAN ? booleanExpression(depth) : intExpression(depth);
+    }
+
+    private Expr intExpression(int depth) {
+        int choice = depth == 0 ? random.nextInt(4) : random.nextInt(9);
+
+        switch (choice) {
+        case 0:
+            return new Expr(Integer.toString(random.nextInt(1000)), PREC_TERMINAL);
+        case 1:
+        case 2:
+            return new Expr(pickReadable().name, PREC_TERMINAL);
+        case 3:
+            return arrayExpression();
+        case 4:
+            return binary(intExpression(depth - 1), "+", intExpression(depth - 1), PREC_ADD);
+        case 5:
+            return binary(intExpression(depth - 1), "-", intExpression(depth - 1), PREC_ADD);
+        case 6:
+            return binary(intExpression(depth - 1), "*", intExpression(depth - 1), PREC_MULT);
+        case 7:
+            return binary(intExpression(depth - 1), "/",
+                    new Expr(Integer.toString(1 + random.nextInt(9)), PREC_TERMINAL), PREC_MULT);
+        default:
+            return new Expr(pick(VarType.ARRAY).name + ".length", PREC_TERMINAL);
+        }
+    }
+
+    private Expr arrayExpression() {
+        Var array = pick(VarType.ARRAY);
+        String index = activeLoops > 0 && random.nextBoolean() ? counters.get(random.nextInt(activeLoops)).name
+                : Integer.toString(random.nextInt(ARRAY_SIZE));
+
+        return new Expr(array.name + "[" + index + "]", PREC_TERMINAL);
+    }
+
+    private Expr booleanExpression(int depth) {
+        int choice = depth == 0 ? random.nextInt(2) : random.nextInt(6);
+
+        switch (choice) {
+        case 0:
+            return new Expr(random.nextBoolean() ? "true" : "false", PREC_TERMINAL);
+        case 1:
+            return new Expr(pick(VarType.BOOLEAN).name, PREC_TERMINAL);
+        case 2:
+        case 3:
+            return binary(intExpression(depth - 1), "<", intExpression(depth - 1), PREC_LT);
+        case 4:
+            return binary(booleanExpression(depth - 1), "&&", booleanExpression(depth - 1), PREC_AND);
+        default:
+            return new Expr("!" + booleanExpression(depth - 1).atLeast(PREC_NOT), PREC_NOT);
+        }
+    }
+
+    /**
+     * Operators are left associative, so the right operand needs parenthesis if it has the same precedence.
+     */
+    private static Expr binary(Expr left, String op, Expr right, int precedence) {
+        return new Expr(left.atLeast(precedence) + " " + op + " " + right.atLeast(precedence + 1), precedence);
+    }
+
+    /**
+     * @return a variable that can be read, including loop counters
+     */
+    private Var pickReadable() {
+        if (random.nextInt(4) == 0 && !counters.isEmpty()) {
+            return counters.get(random.nextInt(counters.size()));
+        }
+
+        return pick(VarType.INT);
+    }
+
+    /**
+     * @return a variable of the given type that can be assigned, loop counters are never returned
+     */
+    private Var pick(VarType type) {
+        List<Var> candidates = new ArrayList<>();
+        for (Var variable : variables) {
+            if (variable.type == type) {
+                candidates.add(variable);
+            }
+        }
+
+        return candidates.get(random.nextInt(candidates.size()));
+    }
+
+    private void line(int indent, String line) {
+        for (int i = 0; i < indent; i++) {
+            code.append('\t');
+        }
+        code.append(line).append('\n');
+    }
+}
@@ -1,11 +1,18 @@
 package pt.up.fe.comp;
 
 import java.io.File;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import pt.up.fe.comp.cache.CompilationCache;
+import pt.up.fe.comp.daemon.CompileClient;
+import pt.up.fe.comp.daemon.CompileServer;
 import pt.up.fe.comp.jasmin.JasminEmitter;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ast.JmmNode;
@@ -13,17 +20,34 @@ import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.ollir.JmmOptimizer;
-import pt.up.fe.specs.util.SpecsIo;
 import pt.up.fe.specs.util.SpecsLogs;
 import pt.up.fe.specs.util.SpecsSystem;
 
 public class Launcher {
 
+    private static final String OUTPUT_DIR = "./libs-jmm/compiled";
+    private static final int DEFAULT_PORT = 7422;
+    private static final int DEFAULT_QUEUE_SIZE = 256;
+    private static final long DEFAULT_CACHE_MB = 512;
+
     public static void main(String[] args) {
         SpecsSystem.programStandardInit();
 
         SpecsLogs.info("Executing with args: " + Arrays.toString(args));
 
+        if (args.length > 0 && Objects.equals(args[0].trim(), "-b")) {
+            System.exit(batch(Arrays.asList(args).subList(1, args.length)));
+        }
+
+        if (args.length > 0 && Objects.equals(args[0].trim(), "--server")) {
+            server(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+
+        if (args.length > 0 && Objects.equals(args[0].trim(), "--client")) {
+            System.exit(client(Arrays.asList(args).subList(1, args.length)));
+        }
+
         // read the input code
         if (args.length < 1) {
             throw new RuntimeException("Expected a single argument, a path to an existing input file.");
@@ -32,11 +56,14 @@ public class Launcher {
         if (!inputFile.isFile()) {
             throw new RuntimeException("Expected a path to an existing input file, got '" + args[0] + "'.");
         }
-        String input = SpecsIo.read(inputFile);
 
         boolean optimize = false;
-        if (args.length == 2) {
-            optimize = Objects.equals(args[1].trim(), "-o");
+        boolean parallelParse = false;
+        boolean parallelAnalysis = false;
+        for (int i = 1; i < args.length; i++) {
+            optimize |= Objects.equals(args[i].trim(), "-o");
+            parallelParse |= Objects.equals(args[i].trim(), "--parallel-parse");
+            parallelAnalysis |= Objects.equals(args[i].trim(), "--parallel-analysis");
         }
 
         // Create config
@@ -45,12 +72,14 @@ public class Launcher {
         config.put("optimize", optimize ? "true" : "false");
         config.put("registerAllocation", "-1");
         config.put("debug", "false");
+        config.put(SimpleParser.PARALLEL_PARSE, parallelParse ? "true" : "false");
+        config.put(JmmAnalyser.PARALLEL_ANALYSIS, parallelAnalysis ? "true" : "false");
 
         // Instantiate JmmParser
         SimpleParser parser = new SimpleParser();
 
-        // Parse stage
-        JmmParserResult parserResult = parser.parse(input, config);
+        // Parse stage, from the memory-mapped file
+        JmmParserResult parserResult = parser.parse(inputFile.toPath(), config);
 
         // Check if there are parsing errors
         TestUtils.noErrors(parserResult.getReports());
@@ -78,8 +107,208 @@ public class Launcher {
 
         TestUtils.noErrors(jasminResult.getReports());
 
-        File file = new File("./libs-jmm/compiled");
+        File file = new File(OUTPUT_DIR);
         jasminResult.compile(file);
     }
 
+    /**
+     * Compiles several files or folders with .jmm files at once, using a pool of threads. Arguments after "-b":
+     * 
+     * <pre>
+     * [-o] [--parallel-parse] [--parallel-analysis] [-j &lt;threads&gt;] [-d &lt;output folder&gt;] [--cache &lt;folder&gt; [--cache-size &lt;MB&gt;]] &lt;file or folder&gt;...
+     * </pre>
+     * 
+     * Failed files are reported and skipped. With a cache, files compiled before are not compiled again.
+     * 
+     * @param args
+     * @return the exit code, 0 if all files compiled, 1 otherwise
+     */
+    private static int batch(List<String> args) {
+        boolean optimize = false;
+        boolean parallelParse = false;
+        boolean parallelAnalysis = false;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        File outputDir = new File(OUTPUT_DIR);
+        CacheOptions cacheOptions = new CacheOptions();
+        List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i).trim();
+            switch (arg) {
+            case "-o":
+                optimize = true;
+                break;
+            case "--parallel-parse":
+                parallelParse = true;
+                break;
+            case "--parallel-analysis":
+                parallelAnalysis = true;
+                break;
+            case "-j":
+                numThreads = Integer.parseInt(getOptionValue(args, ++i, arg));
+                break;
+            case "-d":
+                outputDir = new File(getOptionValue(args, ++i, arg));
+                break;
+            case "--cache":
+            case "--cache-size":
+                cacheOptions.set(arg, getOptionValue(args, ++i, arg));
+                break;
+            default:
+                paths.add(arg);
+            }
+        }
+
+        if (paths.isEmpty()) {
+            throw new RuntimeException("Expected at least one path to an input file or folder.");
+        }
+
+        Map<String, String> config = new HashMap<>();
+        config.put("optimize", optimize ? "true" : "false");
+        config.put("registerAllocation", "-1");
+        config.put("debug", "false");
+        config.put(SimpleParser.PARALLEL_PARSE, parallelParse ? "true" : "false");
+        config.put(JmmAnalyser.PARALLEL_ANALYSIS, parallelAnalysis ? "true" : "false");
+
+        var batchCompiler = new BatchCompiler(config, outputDir, numThreads, System.out, cacheOptions.newCache());
+        var results = batchCompiler.compile(BatchCompiler.getInputFiles(paths));
+
+        return results.stream().allMatch(CompilationResult::isSuccess) ? 0 : 1;
+    }
+
+    /**
+     * Starts a compile server and waits until it is shut down. Arguments after "--server":
+     * 
+     * <pre>
+     * [--port &lt;port&gt; | --socket &lt;socket file&gt;] [-j &lt;threads&gt;] [--queue &lt;size&gt;]
+     * [--cache &lt;folder&gt; [--cache-size &lt;MB&gt;]]
+     * </pre>
+     * 
+     * @param args
+     */
+    private static void server(List<String> args) {
+        SocketAddress address = CompileServer.getTcpAddress(DEFAULT_PORT);
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        CacheOptions cacheOptions = new CacheOptions();
+
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i).trim();
+            switch (arg) {
+            case "--port":
+            case "--socket":
+                address = getAddress(arg, getOptionValue(args, ++i, arg));
+                break;
+            case "-j":
+                numThreads = Integer.parseInt(getOptionValue(args, ++i, arg));
+                break;
+            case "--queue":
+                queueSize = Integer.parseInt(getOptionValue(args, ++i, arg));
+                break;
+            case "--cache":
+            case "--cache-size":
+                cacheOptions.set(arg, getOptionValue(args, ++i, arg));
+                break;
+            default:
+                throw new RuntimeException("Unknown server option '" + arg + "'.");
+            }
+        }
+
+        CompileServer server = CompileServer.start(address, numThreads, queueSize, cacheOptions.newCache());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        SpecsLogs.info("Compile server listening on " + server.getAddress() + " with " + numThreads + " threads");
+        server.awaitTermination();
+    }
+
+    /**
+     * Sends a request to a running compile server. Arguments after "--client":
+     * 
+     * <pre>
+     * [--port &lt;port&gt; | --socket &lt;socket file&gt;] (&lt;input file&gt; [-o] | --stats | --shutdown)
+     * </pre>
+     * 
+     * The class file is written to the same folder as in the single file mode.
+     * 
+     * @param args
+     * @return the exit code, 0 if the request succeeded, 1 otherwise
+     */
+    private static int client(List<String> args) {
+        SocketAddress address = CompileServer.getTcpAddress(DEFAULT_PORT);
+        boolean optimize = false;
+        String request = null;
+        File inputFile = null;
+
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i).trim();
+            switch (arg) {
+            case "--port":
+            case "--socket":
+                address = getAddress(arg, getOptionValue(args, ++i, arg));
+                break;
+            case "-o":
+                optimize = true;
+                break;
+            case "--stats":
+            case "--shutdown":
+                request = arg;
+                break;
+            default:
+                inputFile = new File(arg);
+            }
+        }
+
+        var client = new CompileClient(address);
+        List<String> response;
+        if ("--stats".equals(request)) {
+            response = client.stats();
+        } else if ("--shutdown".equals(request)) {
+            response = client.shutdown();
+        } else if (inputFile != null) {
+            response = client.compile(inputFile, new File(OUTPUT_DIR), optimize);
+        } else {
+            throw new RuntimeException("Expected a path to an input file, --stats or --shutdown.");
+        }
+
+        response.forEach(System.out::println);
+        return CompileClient.isSuccess(response) ? 0 : 1;
+    }
+
+    private static SocketAddress getAddress(String option, String value) {
+        if (option.equals("--socket")) {
+            return UnixDomainSocketAddress.of(value);
+        }
+        return CompileServer.getTcpAddress(Integer.parseInt(value));
+    }
+
+    /**
+     * Options of the compilation cache, shared by the batch and server modes.
+     */
+    private static class CacheOptions {
+        private File cacheDir = null;
+        private long maxMegabytes = DEFAULT_CACHE_MB;
+
+        public void set(String option, String value) {
+            if (option.equals("--cache")) {
+                cacheDir = new File(value);
+            } else {
+                maxMegabytes = Long.parseLong(value);
+            }
+        }
+
+        /**
+         * @return a cache in the given folder, or null if no folder was given
+         */
+        public CompilationCache newCache() {
+            return cacheDir == null ? null : new CompilationCache(cacheDir, maxMegabytes * 1024 * 1024);
+        }
+    }
+
+    private static String getOptionValue(List<String> args, int index, String option) {
+        if (index >= args.size()) {
+            throw new RuntimeException("Expected a value after option '" + option + "'.");
+        }
+        return args.get(index);
+    }
+
 }
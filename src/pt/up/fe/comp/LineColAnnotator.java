@@ -1,19 +1,17 @@
 package pt.up.fe.comp;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmPass;
 
-public class LineColAnnotator extends PreorderJmmVisitor<Integer, Integer> {
-    LineColAnnotator() {
-        setDefaultVisit(this::annotate);
+public class LineColAnnotator extends JmmPass {
+    public LineColAnnotator() {
+        setDefaultPreVisit(this::annotate);
     }
 
-    private Integer annotate(JmmNode node, Integer dummy) {
+    private void annotate(JmmNode node) {
         BaseNode baseNode = (BaseNode) node;
 
-        node.put("line", Integer.toString(baseNode.getBeginLine()));
-        node.put("col", Integer.toString(baseNode.getBeginColumn()));
-
-        return 0;
+        node.putInt("line", baseNode.getBeginLine());
+        node.putInt("col", baseNode.getBeginColumn());
     }
 }
@@ -0,0 +1,80 @@
+package pt.up.fe.comp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a memory-mapped source file as a {@link CharSequence}, without reading it into the heap.
+ *
+ * <p>
+ * Java-- sources are usually ASCII, in which case each byte is a char and the view reads the mapped bytes directly.
+ * Otherwise the file is decoded as UTF-8 into a CharBuffer.
+ */
+public class MappedSource implements CharSequence {
+
+    private final ByteBuffer bytes;
+
+    private MappedSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @param file
+     * @return the contents of the file
+     */
+    public static CharSequence map(Path file) {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file '" + file + "'", e);
+        }
+
+        if (!isAscii(bytes)) {
+            return StandardCharsets.UTF_8.decode(bytes);
+        }
+
+        return new MappedSource(bytes);
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        for (int i = 0; i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes.get(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new MappedSource(bytes.slice(start, end - start));
+    }
+
+    /**
+     * Copies the characters to a String, e.g. the lexer keeps its input as a String.
+     */
+    @Override
+    public String toString() {
+        byte[] copy = new byte[bytes.limit()];
+        bytes.get(0, copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
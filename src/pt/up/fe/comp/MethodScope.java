@@ -0,0 +1,125 @@
+package pt.up.fe.comp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+
+/**
+ * The variables that can be used inside a method: its local variables, its parameters and the fields of the class,
+ * indexed by name. A local variable hides a parameter with the same name, and both hide fields.
+ *
+ * <p>
+ * Scopes are immutable, use {@link #get(SymbolTable, String)} to get the scope of a method.
+ */
+public class MethodScope {
+
+    public enum SymbolKind {
+        LOCAL,
+        PARAMETER,
+        FIELD
+    }
+
+    /**
+     * A symbol found in a scope, and whether it is a local variable, a parameter or a field.
+     */
+    public static class ScopedSymbol {
+        private final Symbol symbol;
+        private final SymbolKind kind;
+
+        private ScopedSymbol(Symbol symbol, SymbolKind kind) {
+            this.symbol = symbol;
+            this.kind = kind;
+        }
+
+        public Symbol getSymbol() {
+            return symbol;
+        }
+
+        public SymbolKind getKind() {
+            return kind;
+        }
+
+        public boolean isField() {
+            return kind == SymbolKind.FIELD;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + symbol;
+        }
+    }
+
+    private final Map<String, ScopedSymbol> symbols;
+    private final Map<String, Integer> parameterNumbers;
+
+    /**
+     * @param symbolTable
+     * @param methodSignature
+     *            the method, or null for the scope outside methods, which only has fields
+     */
+    MethodScope(SymbolTable symbolTable, String methodSignature) {
+        Map<String, ScopedSymbol> symbols = new HashMap<>();
+        Map<String, Integer> parameterNumbers = new HashMap<>();
+
+        if (methodSignature != null) {
+            var parameters = symbolTable.getParameters(methodSignature);
+            add(symbols, symbolTable.getLocalVariables(methodSignature), SymbolKind.LOCAL);
+            add(symbols, parameters, SymbolKind.PARAMETER);
+
+            for (int i = 0; parameters != null && i < parameters.size(); i++) {
+                parameterNumbers.put(parameters.get(i).getName(), i + 1);
+            }
+        }
+        add(symbols, symbolTable.getFields(), SymbolKind.FIELD);
+
+        this.symbols = Collections.unmodifiableMap(symbols);
+        this.parameterNumbers = Collections.unmodifiableMap(parameterNumbers);
+    }
+
+    private static void add(Map<String, ScopedSymbol> symbols, List<Symbol> variables, SymbolKind kind) {
+        if (variables == null) {
+            return;
+        }
+
+        // The first symbol with a name hides the others
+        for (var variable : variables) {
+            symbols.putIfAbsent(variable.getName(), new ScopedSymbol(variable, kind));
+        }
+    }
+
+    /**
+     * @param symbolTable
+     * @param methodSignature
+     *            the method, or null for the scope outside methods
+     * @return the scope of the method, shared by all callers if the table is a {@link FrozenSymbolTable}. Other tables
+     *         may still change, so their scopes are built on each call
+     */
+    public static MethodScope get(SymbolTable symbolTable, String methodSignature) {
+        if (symbolTable instanceof FrozenSymbolTable) {
+            return ((FrozenSymbolTable) symbolTable).getScope(methodSignature);
+        }
+
+        return new MethodScope(symbolTable, methodSignature);
+    }
+
+    /**
+     * @param name
+     * @return the variable with the given name, or null if there is none
+     */
+    public ScopedSymbol resolve(String name) {
+        return symbols.get(name);
+    }
+
+    /**
+     * @param name
+     * @return the position of the parameter with the given name, starting at 1, or 0 if there is none. Parameters
+     *         hidden by a local variable also have a position
+     */
+    public int getParameterNumber(String name) {
+        return parameterNumbers.getOrDefault(name, 0);
+    }
+}
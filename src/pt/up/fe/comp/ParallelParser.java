@@ -0,0 +1,244 @@
+package pt.up.fe.comp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import pt.up.fe.comp.JmmGrammarConstants.LexicalState;
+import pt.up.fe.comp.JmmGrammarConstants.TokenType;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+/**
+ * Parses the methods of a class in parallel. The class body is split at method boundaries with a scan that only looks
+ * at comments and braces. The rest of the file is parsed with the "Start" rule, and each
+ * method with the "MethodDeclaration" rule, on the common fork-join pool. The method nodes are then added to the
+ * ClassDeclaration node, in order.
+ *
+ * <p>
+ * Each method is parsed with a lexer that starts at the line of the method, so nodes keep the same line and column as
+ * in a sequential parse. Methods must start in their own line, otherwise the file is not split.
+ */
+class ParallelParser {
+
+    /**
+     * Files with fewer methods are not worth splitting
+     */
+    private static final int MIN_METHODS = 2;
+
+    private static class MethodSlice {
+        private final int start;
+        private final int end;
+        private final int line;
+
+        private MethodSlice(int start, int end, int line) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+    }
+
+    /**
+     * @param code
+     * @return the root node, or null if the code could not be split or any part failed to parse. In that case the code
+     *         should be parsed sequentially, which also gives the error reports
+     */
+    public JmmNode parse(CharSequence code) {
+        List<MethodSlice> methods = split(code);
+        if (methods == null || methods.size() < MIN_METHODS) {
+            return null;
+        }
+
+        List<ForkJoinTask<JmmNode>> tasks = new ArrayList<>();
+        for (MethodSlice method : methods) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> parseMethod(code, method)));
+        }
+
+        JmmNode root = parseHeader(code, methods);
+
+        List<JmmNode> methodNodes = new ArrayList<>();
+        for (ForkJoinTask<JmmNode> task : tasks) {
+            methodNodes.add(task.join());
+        }
+
+        if (root == null || methodNodes.contains(null)) {
+            return null;
+        }
+
+        JmmNode classDeclaration = root.getJmmChild(root.getNumChildren() - 1);
+        if (!classDeclaration.getKind().equals("ClassDeclaration")) {
+            return null;
+        }
+
+        for (JmmNode methodNode : methodNodes) {
+            classDeclaration.add(methodNode);
+        }
+
+        return root;
+    }
+
+    /**
+     * The rest of the file. Between methods there can only be whitespace and comments, so it is the code before the
+     * first method and after the last one.
+     */
+    private JmmNode parseHeader(CharSequence code, List<MethodSlice> methods) {
+        StringBuilder header = new StringBuilder();
+        header.append(code, 0, methods.get(0).start);
+        header.append(code, methods.get(methods.size() - 1).end, code.length());
+        return parseRule(header, "Start", 1);
+    }
+
+    private JmmNode parseMethod(CharSequence code, MethodSlice method) {
+        return parseRule(code.subSequence(method.start, method.end), "MethodDeclaration", method.line);
+    }
+
+    private static JmmNode parseRule(CharSequence code, String rule, int startingLine) {
+        var lexer = new JmmGrammarLexer("input", code, LexicalState.DEFAULT, startingLine, 1);
+        var parser = new JmmGrammarParser(lexer);
+
+        try {
+            if (rule.equals("Start")) {
+                parser.Start();
+            } else {
+                parser.MethodDeclaration();
+
+                // The slice must contain exactly one method
+                if (parser.getToken(1).getType() != TokenType.EOF) {
+                    return null;
+                }
+            }
+        } catch (ParseException | RuntimeException e) {
+            return null;
+        }
+
+        return (JmmNode) parser.rootNode();
+    }
+
+    /**
+     * @param code
+     * @return the methods of the class, each starting at the beginning of its line (including indentation) and ending
+     *         after its closing brace, or null if the code does not have the expected shape
+     */
+    private static List<MethodSlice> split(CharSequence code) {
+        List<MethodSlice> methods = new ArrayList<>();
+
+        int depth = 0;
+        int line = 1;
+        int lineStart = 0;
+        // Whether only whitespace was seen since the beginning of the line
+        boolean lineBlank = true;
+        MethodSlice current = null;
+        boolean seenBody = false;
+
+        int i = 0;
+        while (i < code.length()) {
+            char c = code.charAt(i);
+
+            if (c == '\n') {
+                line++;
+                lineStart = i + 1;
+                lineBlank = true;
+                i++;
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            // Comments
+            if (c == '/' && i + 1 < code.length() && code.charAt(i + 1) == '/') {
+                while (i < code.length() && code.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+
+            if (c == '/' && i + 1 < code.length() && code.charAt(i + 1) == '*') {
+                int end = indexOfCommentEnd(code, i + 2);
+                if (end == -1) {
+                    return null;
+                }
+                for (int j = i; j < end; j++) {
+                    if (code.charAt(j) == '\n') {
+                        line++;
+                        lineStart = j + 1;
+                    }
+                }
+                // Characters after the comment are not at the beginning of the line
+                lineBlank = false;
+                i = end + 2;
+                continue;
+            }
+
+            if (c == '{') {
+                depth++;
+                if (current != null && depth == 2) {
+                    seenBody = true;
+                }
+            } else if (c == '}') {
+                depth--;
+                if (depth < 0) {
+                    return null;
+                }
+
+                // End of a method
+                if (current != null && depth == 1 && seenBody) {
+                    methods.add(new MethodSlice(current.start, i + 1, current.line));
+                    current = null;
+                }
+            } else if (depth == 1 && current == null) {
+                if (isKeyword(code, i, "public")) {
+                    if (!lineBlank) {
+                        return null;
+                    }
+
+                    current = new MethodSlice(lineStart, -1, line);
+                    seenBody = false;
+                } else if (!methods.isEmpty()) {
+                    // Something other than a method after the methods, let the sequential parser handle it
+                    return null;
+                }
+            }
+
+            lineBlank = false;
+            i++;
+        }
+
+        if (current != null || depth != 0) {
+            return null;
+        }
+
+        return methods;
+    }
+
+    private static int indexOfCommentEnd(CharSequence code, int from) {
+        for (int i = from; i + 1 < code.length(); i++) {
+            if (code.charAt(i) == '*' && code.charAt(i + 1) == '/') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isKeyword(CharSequence code, int index, String keyword) {
+        if (index + keyword.length() > code.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length(); i++) {
+            if (code.charAt(index + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+
+        if (index > 0 && Character.isJavaIdentifierPart(code.charAt(index - 1))) {
+            return false;
+        }
+
+        int end = index + keyword.length();
+        return end == code.length() || !Character.isJavaIdentifierPart(code.charAt(end));
+    }
+}
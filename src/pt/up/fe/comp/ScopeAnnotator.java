@@ -0,0 +1,34 @@
+package pt.up.fe.comp;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmPass;
+
+/**
+ * Records in each node its enclosing method and class, see {@link JmmNode#setEnclosingScope(JmmNode, JmmNode)}. Since
+ * nodes are visited before their children, the scope of a node is found from the scope of its parent.
+ */
+public class ScopeAnnotator extends JmmPass {
+    public ScopeAnnotator() {
+        setDefaultPreVisit(this::annotate);
+    }
+
+    private void annotate(JmmNode node) {
+        JmmNode parent = node.getJmmParent();
+
+        JmmNode method;
+        if (node.getKind().equals("InstanceMethod") || node.getKind().equals("MainMethod")) {
+            method = node;
+        } else {
+            method = parent == null ? null : parent.getEnclosingMethod();
+        }
+
+        JmmNode classDeclaration;
+        if (node.getKind().equals("ClassDeclaration")) {
+            classDeclaration = node;
+        } else {
+            classDeclaration = parent == null ? null : parent.getEnclosingClass();
+        }
+
+        node.setEnclosingScope(method, classDeclaration);
+    }
+}
@@ -1,16 +1,17 @@
 package pt.up.fe.comp;
 
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 
+import pt.up.fe.comp.jmm.ast.FusedJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.specs.util.SpecsIo;
-import pt.up.fe.specs.util.SpecsSystem;
 
 /**
  * Copyright 2022 SPeCS.
@@ -27,6 +28,11 @@ import pt.up.fe.specs.util.SpecsSystem;
 
 public class SimpleParser implements JmmParser {
 
+    /**
+     * Config key, if "true" the methods of the class are parsed in parallel (see {@link ParallelParser})
+     */
+    public static final String PARALLEL_PARSE = "parallelParse";
+
     @Override
     public JmmParserResult parse(String jmmCode, Map<String, String> config) {
         return parse(jmmCode, "Start", config);
@@ -34,19 +40,45 @@ public class SimpleParser implements JmmParser {
 
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        return parseSource(jmmCode, startingRule, config);
+    }
+
+    /**
+     * Parses a file without reading it into a String first, the file is memory-mapped (see {@link MappedSource}).
+     * 
+     * @param file
+     * @param config
+     */
+    public JmmParserResult parse(Path file, Map<String, String> config) {
+        return parseSource(MappedSource.map(file), "Start", config);
+    }
+
+    private JmmParserResult parseSource(CharSequence jmmCode, String startingRule, Map<String, String> config) {
 
         try {
 
-            JmmGrammarParser parser = new JmmGrammarParser(SpecsIo.toInputStream(jmmCode));
-            SpecsSystem.invoke(parser, startingRule);
+            JmmNode root = null;
+            if (startingRule.equals("Start") && "true".equals(config.get(PARALLEL_PARSE))) {
+                root = new ParallelParser().parse(jmmCode);
+            }
 
-            VisitorEval visitorEval = new VisitorEval();
+            // Also parses sequentially if the parallel parse failed, to get the error reports
+            if (root == null) {
+                JmmGrammarParser parser = new JmmGrammarParser(jmmCode);
+                invokeRule(parser, startingRule);
+                root = (JmmNode) parser.rootNode();
+            }
 
-            var root = (JmmNode) parser.rootNode();
+            LineColAnnotator lineColAnnotator = new LineColAnnotator();
+            VisitorEval visitorEval = new VisitorEval();
 
-            new LineColAnnotator().visit(root);
+            // The reports of VisitorEval use the line and column of the nodes
+            visitorEval.runAfter(lineColAnnotator);
 
-            visitorEval.visit(root, null);
+            new FusedJmmVisitor()
+                    .addPass(lineColAnnotator)
+                    .addPass(visitorEval)
+                    .visit(root);
 
             if (!(root instanceof JmmNode)) {
                 return JmmParserResult.newError(new Report(ReportType.WARNING, Stage.SYNTATIC, -1,
@@ -71,4 +103,21 @@ public class SimpleParser implements JmmParser {
             }
         }
     }
+
+    /**
+     * Calls the method of the parser for the given rule. SpecsSystem.invoke is not used since its cache of methods is
+     * not thread-safe, and several files can be parsed at the same time (e.g. in batch mode).
+     */
+    private static void invokeRule(JmmGrammarParser parser, String rule) throws Exception {
+        var method = JmmGrammarParser.class.getMethod(rule);
+
+        try {
+            method.invoke(parser);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw new RuntimeException("Could not parse rule " + rule, e.getCause());
+        }
+    }
 }
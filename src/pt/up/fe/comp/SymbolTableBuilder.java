@@ -69,6 +69,14 @@ public class SymbolTableBuilder implements pt.up.fe.comp.jmm.analysis.table.Symb
         return methodFields.get(methodSignature);
     }
 
+    /**
+     * @return an immutable copy of the table, with hash indices, that can be shared between threads. Later changes to
+     *         this builder do not affect it
+     */
+    public FrozenSymbolTable freeze() {
+        return new FrozenSymbolTable(this);
+    }
+
     public void setClassName(String className) {
         this.className = className;
     }
@@ -11,7 +11,6 @@ import pt.up.fe.comp.jmm.report.Stage;
 import javax.sound.midi.Soundbank;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 class SymbolTableFiller extends PreorderJmmVisitor<SymbolTableBuilder, Integer> {
     private boolean inClassDeclaration = true;
@@ -39,7 +38,7 @@ class SymbolTableFiller extends PreorderJmmVisitor<SymbolTableBuilder, Integer>
     }
 
     private Integer visitImport(JmmNode node, SymbolTableBuilder symbolTableBuilder) {
-        List<JmmNode> children = node.getChildren();
+        List<JmmNode> children = node.getChildrenView();
         String importString = children.get(0).get("name");
 
         for (int i = 1; i < children.size(); i++) {
@@ -63,16 +62,16 @@ class SymbolTableFiller extends PreorderJmmVisitor<SymbolTableBuilder, Integer>
     }
 
     private Integer visitVarDeclaration(JmmNode node, SymbolTableBuilder symbolTableBuilder) {
-        Symbol symbol = new Symbol(new Type(node.getJmmChild(0).get("type"), Objects.equals(node.getJmmChild(0).get("array"), "true")), node.getJmmChild(1).get("name"));
+        Symbol symbol = new Symbol(new Type(node.getJmmChild(0).get("type"), node.getJmmChild(0).getBoolean("array")), node.getJmmChild(1).get("name"));
         if (inClassDeclaration) {
             if (symbolTableBuilder.containsField(symbol.getName())) {
-                reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")), "Variable of same name declared twice"));
+                reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, node.getInt("line"), node.getInt("col"), "Variable of same name declared twice"));
                 return -1;
             }
             symbolTableBuilder.addField(symbol);
         } else {
             if (symbolTableBuilder.containsField(currentMethodSignature, symbol.getName())) {
-                reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")), "Variable of same name declared twice"));
+                reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, node.getInt("line"), node.getInt("col"), "Variable of same name declared twice"));
                 return -1;
             }
             symbolTableBuilder.addMethodField(currentMethodSignature, symbol);
@@ -84,7 +83,7 @@ class SymbolTableFiller extends PreorderJmmVisitor<SymbolTableBuilder, Integer>
         inClassDeclaration = false;
         currentMethodSignature = "main";
         if (symbolTableBuilder.containsMethod(currentMethodSignature)) {
-            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")), "Same method declared twice"));
+            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, node.getInt("line"), node.getInt("col"), "Same method declared twice"));
             return -1;
         }
         symbolTableBuilder.addMethod("main");
@@ -101,18 +100,18 @@ class SymbolTableFiller extends PreorderJmmVisitor<SymbolTableBuilder, Integer>
         inClassDeclaration = false;
         currentMethodSignature = node.getJmmChild(1).get("name");
         if (symbolTableBuilder.containsMethod(currentMethodSignature)) {
-            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")), "Same method declared twice"));
+            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, node.getInt("line"), node.getInt("col"), "Same method declared twice"));
             return -1;
         }
         symbolTableBuilder.addMethod(currentMethodSignature);
-        symbolTableBuilder.setMethodReturnType(currentMethodSignature, new Type(node.getJmmChild(0).get("type"), Objects.equals(node.getJmmChild(0).get("array"), "true")));
+        symbolTableBuilder.setMethodReturnType(currentMethodSignature, new Type(node.getJmmChild(0).get("type"), node.getJmmChild(0).getBoolean("array")));
         return 0;
     }
 
     private Integer visitArgument(JmmNode node, SymbolTableBuilder symbolTableBuilder) {
-        Symbol symbol = new Symbol(new Type(node.getJmmChild(0).get("type"), Objects.equals(node.getJmmChild(0).get("array"), "true")), node.getJmmChild(1).get("name"));
+        Symbol symbol = new Symbol(new Type(node.getJmmChild(0).get("type"), node.getJmmChild(0).getBoolean("array")), node.getJmmChild(1).get("name"));
         if (symbolTableBuilder.containsParameter(currentMethodSignature, symbol.getName())) {
-            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")), "Variable of same name declared twice"));
+            reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC, node.getInt("line"), node.getInt("col"), "Variable of same name declared twice"));
             return -1;
         }
         symbolTableBuilder.addMethodParam(currentMethodSignature, symbol);
@@ -0,0 +1,142 @@
+package pt.up.fe.comp;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmPass;
+
+/**
+ * Records in each expression node its type, see {@link JmmNode#setExpressionType(Type)}. Nodes are visited after their
+ * children, so the type of an expression is found from the types already stored in its operands, and each node is
+ * typed only once.
+ *
+ * <p>
+ * Expressions without a type, such as names that are not declared or calls to methods outside the class, get no type.
+ * Needs the symbol table to be filled and, in a {@link pt.up.fe.comp.jmm.ast.FusedJmmVisitor}, must run after
+ * {@link ScopeAnnotator}.
+ */
+public class TypeAnnotator extends JmmPass {
+
+    public static final Type INT = new Type("int", false);
+    public static final Type INT_ARRAY = new Type("int", true);
+    public static final Type BOOLEAN = new Type("boolean", false);
+
+    private final SymbolTable symbolTable;
+    private final Set<String> imports;
+
+    public TypeAnnotator(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        this.imports = new HashSet<>(symbolTable.getImports());
+
+        addPostVisit("Literal", this::literalVisit);
+        addPostVisit("Identifier", this::identifierVisit);
+        addPostVisit("BinOp", this::binOpVisit);
+        addPostVisit("UnaryOp", this::unaryOpVisit);
+        addPostVisit("NewExp", this::newExpVisit);
+        addPostVisit("Array", this::arrayVisit);
+        addPostVisit("Index", node -> node.setExpressionType(INT));
+        addPostVisit("IfCondition", node -> node.setExpressionType(BOOLEAN));
+        addPostVisit("CallExpression", this::callExpressionVisit);
+    }
+
+    private static Type canonical(Type type) {
+        if (INT.equals(type)) return INT;
+        if (INT_ARRAY.equals(type)) return INT_ARRAY;
+        if (BOOLEAN.equals(type)) return BOOLEAN;
+        return type;
+    }
+
+    private void literalVisit(JmmNode node) {
+        node.setExpressionType(canonical(new Type(node.get("type"), false)));
+    }
+
+    private void identifierVisit(JmmNode node) {
+        String name = node.get("name");
+
+        var variable = MethodScope.get(symbolTable, VisitorSemantic.getParentMethodSignature(node)).resolve(name);
+        var method = node.getEnclosingMethod();
+        // Fields are not visible in main
+        boolean visible = variable != null
+                && !(variable.isField() && method != null && method.getKind().equals("MainMethod"));
+
+        if (visible) {
+            node.setExpressionType(canonical(variable.getSymbol().getType()));
+        } else if (imports.contains(name) || name.equals(symbolTable.getSuper())) {
+            node.setExpressionType(new Type(name, false));
+        }
+    }
+
+    private void binOpVisit(JmmNode node) {
+        switch (node.get("op")) {
+        case "lt":
+        case "and":
+        case "or":
+            node.setExpressionType(BOOLEAN);
+            break;
+        case "add":
+        case "sub":
+        case "mult":
+        case "div":
+            node.setExpressionType(INT);
+            break;
+        default:
+        }
+    }
+
+    private void unaryOpVisit(JmmNode node) {
+        switch (node.get("op")) {
+        case "return":
+            var returnType = symbolTable.getReturnType(VisitorSemantic.getParentMethodSignature(node));
+            if (returnType != null) {
+                node.setExpressionType(canonical(returnType));
+            }
+            break;
+        case "length":
+            node.setExpressionType(INT);
+            break;
+        case "not":
+            node.setExpressionType(BOOLEAN);
+            break;
+        default:
+        }
+    }
+
+    private void newExpVisit(JmmNode node) {
+        if (node.get("type").equals("intArray")) {
+            node.setExpressionType(INT_ARRAY);
+            return;
+        }
+
+        // new A(), named by an identifier
+        String className = node.getJmmChild(0).get("name");
+        node.setExpressionType(new Type(className, false));
+    }
+
+    private void arrayVisit(JmmNode node) {
+        var arrayType = node.getJmmChild(0).getExpressionType();
+        if (arrayType != null && arrayType.isArray()) {
+            node.setExpressionType(canonical(new Type(arrayType.getName(), false)));
+        }
+    }
+
+    /**
+     * Only calls to methods of the class have a known type, the type of other methods depends on where they are used.
+     */
+    private void callExpressionVisit(JmmNode node) {
+        var target = node.getJmmChild(0);
+        boolean onClass = target.getKind().equals("ThisT")
+                || (target.getExpressionType() != null && !target.getExpressionType().isArray()
+                        && target.getExpressionType().getName().equals(symbolTable.getClassName()));
+        if (!onClass || node.getNumChildren() < 2) {
+            return;
+        }
+
+        String methodName = node.getJmmChild(1).getOptional("name").orElse(null);
+        if (methodName != null && symbolTable.getMethods().contains(methodName)) {
+            node.setExpressionType(canonical(symbolTable.getReturnType(methodName)));
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package pt.up.fe.comp;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmPass;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
@@ -9,138 +9,64 @@ import pt.up.fe.comp.jmm.report.Stage;
 import java.util.ArrayList;
 import java.util.List;
 
-public class VisitorEval extends AJmmVisitor<Object, Integer> {
+/**
+ * Checks the number of children of each node. Checking stops at the first error, except for Index nodes, where only
+ * their children are skipped.
+ */
+public class VisitorEval extends JmmPass {
     List<Report> reports;
 
     public VisitorEval() {
 
-        addVisit("Literal", this::LiteralVisit);
-        addVisit("UnaryOp", this::unaryOpVisit);
-        addVisit("BinOp", this::binOpVisit);
-        addVisit("Identifier", this::identifierVisit);
-        addVisit("Inheritance", this::inheritanceVisit);
-        addVisit("VarDeclaration", this::varDeclarationVisit);
-        addVisit("Type", this::varTypeVisit);
-        addVisit("CallExpression", this::callExpressionVisit);
-        addVisit("Index", this::indexVisit);
-
-        setDefaultVisit(this::defaultVisit);
+        addPreVisit("Literal", this::LiteralVisit);
+        addPreVisit("UnaryOp", node -> checkNumChildren(node, 1));
+        addPreVisit("BinOp", node -> checkNumChildren(node, 2));
+        addPreVisit("Identifier", node -> checkNumChildren(node, 0));
+        addPreVisit("Inheritance", node -> checkNumChildren(node, 1));
+        addPreVisit("VarDeclaration", node -> checkNumChildren(node, 2));
+        addPreVisit("Type", node -> checkNumChildren(node, 0));
+        addPreVisit("CallExpression", node -> checkNumChildren(node, 3));
+        addPreVisit("Index", this::indexVisit);
 
         reports = new ArrayList<>();
     }
 
     private void addReport(JmmNode node, String message) {
         reports.add(new Report(ReportType.ERROR, Stage.SYNTATIC,
-                Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")),
+                node.getInt("line"), node.getInt("col"),
                 message));
     }
 
-    private Integer LiteralVisit(JmmNode node, Object dummy) {
+    private void LiteralVisit(JmmNode node) {
 
         String typeString = node.get("type");
         if (node.getNumChildren() == 0) {
             switch (typeString){
                 case "int":
                 case "boolean":
-                    return 0;
+                    return;
                 default:
                     addReport(node, "Illegal type '" + typeString + "' in " + node.getKind() + ".");
-                    return 1;
+                    stop();
+                    return;
             }
         }
         addReport(node, "Illegal number of children in node");
-        return 1;
+        stop();
     }
 
-    private Integer unaryOpVisit(JmmNode node, Object dummy) {
-
-        if (node.getNumChildren() != 1) {
+    private void checkNumChildren(JmmNode node, int numChildren) {
+        if (node.getNumChildren() != numChildren) {
             addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-            return 1;
+            stop();
         }
-
-        return visit(node.getJmmChild(0));
     }
 
-    private Integer binOpVisit(JmmNode node, Object dummy) {
-
+    private void indexVisit(JmmNode node){
         if (node.getNumChildren() != 2) {
             addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-            return 1;
-        }
-
-        for(var child: node.getChildren())
-            if (visit(child, dummy) != 0) return 1;
-
-        return 0;
-    }
-
-    private Integer identifierVisit(JmmNode node, Object dummy){
-        if (node.getNumChildren() == 0) {
-            return 0;
-        }
-
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return 1;
-    }
-
-    private Integer inheritanceVisit(JmmNode node, Object dummy){
-        System.out.println(node.toTree());
-        if (node.getNumChildren() == 1) {
-            return visit(node.getJmmChild(0), dummy);
-        }
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return 1;
-    }
-
-    private Integer varDeclarationVisit(JmmNode node, Object dummy){
-        if (node.getNumChildren() == 2) {
-            for(var child: node.getChildren())
-                if (visit(child, dummy) != 0) return 1;
-
-            return 0;
+            skipChildren();
         }
-
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return 1;
-    }
-
-    private Integer varTypeVisit(JmmNode node, Object dummy){
-        if (node.getNumChildren() == 0) {
-            return 0;
-        }
-
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return 1;
-    }
-
-    private Integer callExpressionVisit(JmmNode node, Object dummy){
-        if (node.getNumChildren() == 3) {
-            for(var child: node.getChildren())
-                if (visit(child, dummy) != 0) return 1;
-
-            return 0;
-        }
-
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return  1;
-    }
-
-    private Integer indexVisit(JmmNode node, Object dummy){
-        if (node.getNumChildren() == 2) {
-            for(var child: node.getChildren())
-                if (visit(child, dummy) != 0) return 1;
-            return 0;
-        }
-
-        addReport(node, "Illegal number of children in node " + node.getKind() + ".");
-        return  0;
-    }
-
-    private Integer defaultVisit(JmmNode node, Object dummy) {
-        for(var child: node.getChildren())
-            if (visit(child, dummy) != 0) return 1;
-        return 0;
     }
 
     public List<Report> getReports() {
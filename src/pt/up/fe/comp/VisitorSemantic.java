@@ -13,13 +13,15 @@ import java.util.*;
 public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
     final SymbolTable symbolTable;
     final List<Report> reports;
+    /* Definite assignment of each method, computed when first needed */
+    private final Map<JmmNode, DefiniteAssignment> definiteAssignments = new HashMap<>();
 
     public List<Report> getReports() {
         return reports;
     }
     private void addReport(JmmNode node, String message) {
         reports.add(new Report(ReportType.ERROR, Stage.SEMANTIC,
-                Integer.parseInt(node.get("line")), Integer.parseInt(node.get("col")),
+                node.getInt("line"), node.getInt("col"),
                 message));
     }
 
@@ -55,7 +57,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
     }
     private Integer defaultVisit(JmmNode node, Object dummy) {
 
-        for(var child: node.getChildren())
+        for(var child: node.getChildrenView())
             visit(child, dummy);
         return 0;
     }
@@ -114,11 +116,28 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
         return 0;
     }
     private Integer binOpVisit(JmmNode node, Object dummy) {
+        /* Chains such as a + b + c are nested on the left operand, follow them with a loop instead of recursion */
+        List<JmmNode> chain = new ArrayList<>();
+        JmmNode current = node;
+        while (current.getKind().equals("BinOp")) {
+            chain.add(current);
+            current = current.getJmmChild(0);
+        }
+        visit(current, dummy);
+
+        /* Same order as visiting recursively: left operand, right operand, then the checks of the operation */
+        Integer result = null;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            visit(chain.get(i).getJmmChild(1), dummy);
+            result = checkBinOp(chain.get(i));
+        }
+        return result;
+    }
+
+    private Integer checkBinOp(JmmNode node) {
         /* Get important node items */
         var child0 = node.getJmmChild(0);
         var child1 = node.getJmmChild(1);
-        visit(child0, dummy);
-        visit(child1, dummy);
 
         if (!checkVariableDeclaration(child0)) {
             addReport(child0, "Variable not declared");
@@ -278,7 +297,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
         List<JmmNode> identifiers = new ArrayList<>();
         JmmNode argument = null;
 
-        for(var child: node.getChildren()) {
+        for(var child: node.getChildrenView()) {
             if(child.getKind().equals("Arguments")) {
                 argument = child;
                 break;
@@ -340,7 +359,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
 
     private Boolean checkArguments(JmmNode argument, List<JmmNode> identifiers) {
         /* Verify parameters */
-        var methodArguments = argument.getChildren();
+        var methodArguments = argument.getChildrenView();
         if(methodArguments == null) return false;
         var methodParameters = this.symbolTable.getParameters(identifiers.get(identifiers.size()-1).get("name"));
         if(methodParameters == null) return false;
@@ -377,7 +396,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
             return null;
         }
 
-        if(!checkVariableInitialization(rightChild)) {
+        if(!checkVariableInitialization(rightChild, node)) {
             addReport(rightChild, "Variable not initialized");
             return null;
         }
@@ -445,37 +464,18 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
 
 
     /**
-     * Get the type of any node kind
+     * Get the type of any node kind, from the types stored by {@link TypeAnnotator}
      * @param node
      * @return node type, "null" otherwise
      */
     private String getType(JmmNode node) {
         switch (node.getKind()) {
-            case "Literal":
-                return node.get("type");
-            case "Identifier":
-                var methodNode = getParentNode(node);
-                List<Symbol> variables = new ArrayList<>();
-                if(methodNode == null) variables = getVariablesInScope(getParentMethodSignature(node), false);
-                else variables = getVariablesInScope(getParentMethodSignature(node), methodNode.getKind().equals("MainMethod"));
-                for(var variable: variables) {
-                    if (node.get("name").equals(variable.getName())) {
-                        return variable.getType().getName();
-                    }
-                }
-                for(var import_: this.symbolTable.getImports()) {
-                    if(import_.equals(node.get("name"))) return import_;
-                }
-                if(this.symbolTable.getSuper() == null) return null;
-                if(this.symbolTable.getSuper().equals(node.get("name"))) return this.symbolTable.getSuper();
-                return null;
-            case "BinOp":
-            case "UnaryOp":
-                return getTypeOfOp(node);
+            /* Typing calls and assignments also reports undeclared names */
             case "CallExpression":
                 return getTypeOfCall(node);
             case "AssignmentStatement":
                 return getTypeOfAssignment(node);
+            /* The type of the name, even if it is not an array or a class */
             case "NewExp":
                 if(node.get("type").equals("intArray")) {
                     return "int";
@@ -483,22 +483,17 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
                 return getType(node.getJmmChild(0));
             case "Array":
                 return getType(node.getJmmChild(0));
-            case "IfCondition":
-                return "boolean";
-            case "Index":
-                return "int";
             default:
-                return null;
+                var type = node.getExpressionType();
+                return type == null ? null : type.getName();
         }
     }
     private String getType(JmmNode node, String typeOfDot) {
         switch(node.getKind()) {
             case "Identifier":
                 if(checkClass(typeOfDot)) {
-                    for(var method: this.symbolTable.getMethods()) {
-                        if (node.get("name").equals(method)) {
-                            return this.symbolTable.getReturnType(method).getName();
-                        }
+                    if(this.symbolTable.getMethods().contains(node.get("name"))) {
+                        return this.symbolTable.getReturnType(node.get("name")).getName();
                     }
                     if(this.symbolTable.getSuper() != null) return this.symbolTable.getSuper();
                     addReport(node, "Method not exist");
@@ -518,54 +513,30 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
      * @return Method signature
      */
     public static String getParentMethodSignature(JmmNode jmmNode){
-        while (true){
-            if(jmmNode.getKind().equals("InstanceMethod")){
-                return jmmNode.getJmmChild(1).get("name");
-            }
-            else if(jmmNode.getKind().equals("MainMethod")){
-                return "main";
-            }
-            else{
-                jmmNode = jmmNode.getJmmParent();
-                if(jmmNode == null) return null;
-            }
-        }
+        JmmNode method = jmmNode.getEnclosingMethod();
+        if(method == null) return null;
+        if(method.getKind().equals("InstanceMethod")) return method.getJmmChild(1).get("name");
+        return "main";
     }
     private JmmNode getParentNode(JmmNode node) {
-        while(true) {
-            if(node.getKind().equals("InstanceMethod") || node.getKind().equals("MainMethod")) {
-                return node;
-            } else {
-                node = node.getJmmParent();
-                if(node == null) return null;
-            }
-        }
+        return node.getEnclosingMethod();
     }
 
     private JmmNode getClassNode(JmmNode node) {
-        while(true) {
-            if(node.getKind().equals("ClassDeclaration")) {
-                return node;
-            } else {
-                node = node.getJmmParent();
-                if(node == null) return null;
-            }
-        }
+        return node.getEnclosingClass();
     }
     /**
-     * Get all variables in scope on node
-     * @param nodeSignature
-     * @return All variables available in scope
+     * Get the variable a name refers to, in the scope of the node
+     * @param node
+     * @return The local variable, parameter or field, null if there is none (fields are not visible in main)
      */
-    private List<Symbol> getVariablesInScope(String nodeSignature, Boolean static_) {
-        List<Symbol> variables = new ArrayList<>();
-        var localVariables = this.symbolTable.getLocalVariables(nodeSignature);
-        if(localVariables != null) variables.addAll(localVariables);
-        var parameters = this.symbolTable.getParameters(nodeSignature);
-        if(localVariables != null) variables.addAll(parameters);
-        var fields = this.symbolTable.getFields();
-        if(fields != null && !static_) variables.addAll(fields);
-        return variables;
+    private Symbol getVariable(JmmNode node) {
+        var variable = MethodScope.get(this.symbolTable, getParentMethodSignature(node)).resolve(node.get("name"));
+        if(variable == null) return null;
+
+        var methodNode = getParentNode(node);
+        if(variable.isField() && methodNode != null && methodNode.getKind().equals("MainMethod")) return null;
+        return variable.getSymbol();
     }
 
     /**
@@ -575,16 +546,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
      */
     private Boolean checkIdentifierOnSymbolTable(JmmNode variable) {
         if(!variable.getKind().equals("Identifier")) return true;
-        var methodNode = getParentNode(variable);
-        List<Symbol> variables = new ArrayList<>();
-        if(methodNode == null) variables = getVariablesInScope(getParentMethodSignature(variable), false);
-        else variables = getVariablesInScope(getParentMethodSignature(variable), methodNode.getKind().equals("MainMethod"));
-        for (var variableTemp: variables) {
-            if (variable.get("name").equals(variableTemp.getName())) {
-                return true;
-            }
-        }
-        return false;
+        return getVariable(variable) != null;
     }
 
     private Boolean checkSuperclass(String node){
@@ -612,84 +574,25 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
     }
 
     private Boolean checkFields(JmmNode node) {
-        for(var field: this.symbolTable.getFields()){
-            if(node.get("name").equals(field.getName())) return true;
-        }
-        return false;
+        // Outside methods, only fields are in scope
+        return MethodScope.get(this.symbolTable, null).resolve(node.get("name")) != null;
     }
 
     private Boolean checkImport(String variable) {
         if(variable == null) return false;
-        var imports = this.symbolTable.getImports();
-        for(var import_: imports) {
-            if(variable.equals(import_)) return true;
-        }
-        return false;
+        return this.symbolTable.getImports().contains(variable);
     }
     private Boolean checkImport(JmmNode variable) {
         if(!variable.getAttributes().contains("name")) return false;
-        var imports = this.symbolTable.getImports();
-        for(var import_: imports) {
-            var type = getType(variable);
-            if(type == null) {
-                if(variable.get("name").equals(import_))
-                    return true;
-            }
-            else if (type.equals(import_)) {
-                return true;
-            }
-        }
-        return false;
+        var type = getType(variable);
+        if(type == null) return checkImport(variable.get("name"));
+        return checkImport(type);
     }
-    private String getTypeOfOp(JmmNode node) {
-
-        switch(node.getKind()) {
-            case "UnaryOp":
-                switch(node.get("op")) {
-                    case "return":
-                        return this.symbolTable.getReturnType(getParentMethodSignature(node)).getName();
-                    case "length":
-                        return "int";
-                    case "not":
-                        return "boolean";
-                    default:
-                        return null;
-                }
-
-            case "BinOp":
-                var op = node.get("op");
-                switch(op) {
-                    case "lt":
-                    case "and":
-                    case "or":
-                        return "boolean";
-                    case "add":
-                    case "sub":
-                    case "mult":
-                    case "div":
-                        return "int";
-                    default:
-                        return null;
-                }
-            default:
-               return null;
-        }
-    }
-
     private Boolean isArray(JmmNode node) {
-        if(!node.getAttributes().contains("name")) return false;
-
-        var methodNode = getParentNode(node);
-        List<Symbol> variables = new ArrayList<>();
-        if(methodNode == null) variables = getVariablesInScope(getParentMethodSignature(node), false);
-        else variables = getVariablesInScope(getParentMethodSignature(node), methodNode.getKind().equals("MainMethod"));
+        if(node.getOptional("name").isEmpty()) return false;
 
-        for(var variable: variables) {
-            if (variable.getName().equals(node.get("name"))) {
-                return variable.getType().isArray();
-            }
-        }
-        return false;
+        var variable = getVariable(node);
+        return variable != null && variable.getType().isArray();
     }
     private String getTypeOfCall(JmmNode node) {
 
@@ -698,7 +601,7 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
         if(firstIdentifier.getKind().equals("NewExp")) {
             firstIdentifier = firstIdentifier.getJmmChild(0);
         }
-        for(var child: node.getChildren()) {
+        for(var child: node.getChildrenView()) {
             if(child.getKind().equals("Arguments")) {
                 break;
             } else {
@@ -736,16 +639,16 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
     private Boolean checkArgument(JmmNode node) {
         if(!node.getAttributes().contains("name")) return false;
         var parentMethod = getParentMethodSignature(node);
-        var parameters = this.symbolTable.getParameters(parentMethod);
-        for(var parameter: parameters) {
-            if(node.get("name").equals(parameter.getName())) {
-                return true;
-            }
-        }
-        return false;
+        return MethodScope.get(this.symbolTable, parentMethod).getParameterNumber(node.get("name")) > 0;
     }
 
-    private Boolean checkVariableInitialization(JmmNode node) {
+    /**
+     * Verify if the variables of an expression are initialized
+     * @param node
+     * @param assignment Assignment statement where the expression is used
+     * @return true if they are, false otherwise
+     */
+    private Boolean checkVariableInitialization(JmmNode node, JmmNode assignment) {
         if(node.getKind().equals("Literal")) return true;
         if(!checkVariableDeclaration(node)) {
             addReport(node, "Variable should be declared");
@@ -765,49 +668,38 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
 
                 if(checkFields(node)) return true;
                 JmmNode parentNode = getParentNode(node);
-                List<JmmNode> assigns = getAllAssignment(parentNode);
-
-                for (JmmNode assign : assigns) {
-                    JmmNode identifier = assign.getJmmChild(0);
-                    if(identifier.getKind().equals("Index")) {
-                        identifier = identifier.getJmmChild(0);
-                    }
-                    if (identifier.get("name").equals(node.get("name"))) {
-                        if (Integer.parseInt(identifier.get("line")) < Integer.parseInt(node.get("line"))) {
-                            return true;
-                        }
-                    }
-                }
+                if(parentNode == null) return false;
 
-                break;
+                var definiteAssignment = definiteAssignments.computeIfAbsent(parentNode, DefiniteAssignment::new);
+                return definiteAssignment.isAssigned(assignment, node.get("name"));
             case "UnaryOp":
-                return checkVariableInitialization(node.getJmmChild(0));
+                return checkVariableInitialization(node.getJmmChild(0), assignment);
             case "BinOp":
-
-                return checkVariableInitialization(node.getJmmChild(0)) && checkVariableInitialization(node.getJmmChild(1));
+                for (var operand : getOperands(node)) {
+                    if (!checkVariableInitialization(operand, assignment)) return false;
+                }
+                return true;
             default:
                 return checkVariableDeclaration(node);
         }
-
-        return false;
     }
 
-    private List<JmmNode> getAllAssignment(JmmNode parent) {
-        List<JmmNode> result = new ArrayList<>();
-        Queue<JmmNode> queue = new LinkedList<>();
-        queue.add(parent);
-        while(!queue.isEmpty()) {
-            JmmNode temp = queue.peek();
-            queue.remove();
-
-            if(temp.getKind().equals("AssignmentStatement")) {
-                result.add(temp);
-            }
-            queue.addAll(temp.getChildren());
+    /**
+     * @return the operands of a chain of binary operations such as a + b + c, from left to right. The chain is nested
+     *         on the left operand, and is followed with a loop instead of recursion
+     */
+    private List<JmmNode> getOperands(JmmNode binOp) {
+        List<JmmNode> operands = new ArrayList<>();
+        JmmNode current = binOp;
+        while (current.getKind().equals("BinOp")) {
+            operands.add(current.getJmmChild(1));
+            current = current.getJmmChild(0);
         }
-
-        return result;
+        operands.add(current);
+        Collections.reverse(operands);
+        return operands;
     }
+
     private Boolean checkVariableDeclaration(JmmNode variable) {
 
         switch(variable.getKind()) {
@@ -844,7 +736,10 @@ public class VisitorSemantic extends AJmmVisitor<Object, Integer> {
             case "CallExpression":
                 return true;
             case "BinOp":
-                return checkVariableDeclaration(variable.getJmmChild(0)) && checkVariableDeclaration(variable.getJmmChild(1));
+                for (var operand : getOperands(variable)) {
+                    if (!checkVariableDeclaration(operand)) return false;
+                }
+                return true;
             case "UnaryOp":
                 return checkVariableDeclaration(variable.getJmmChild(0));
             case "Array":
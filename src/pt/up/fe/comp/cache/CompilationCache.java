@@ -0,0 +1,439 @@
+package pt.up.fe.comp.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.specs.comp.ollir.ClassUnit;
+
+import jasmin.ClassFile;
+import pt.up.fe.comp.CompilationResult;
+import pt.up.fe.comp.JmmCompiler;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.SpecsLogs;
+
+/**
+ * On-disk cache of compilation results, so that compiling a file that did not change skips every stage.
+ *
+ * <p>
+ * Entries are addressed by a SHA-256 hash of the source code, of the config values that change the generated code
+ * ("optimize" and "registerAllocation") and of the compiler version, taken from the class files of the compiler and
+ * of the OLLIR and Jasmin libraries. Each entry is a single file with the class name and bytes, the reports (of their
+ * exceptions only the message is kept) and, if "keepIntermediate" is set, the OLLIR and Jasmin code.
+ *
+ * <p>
+ * The folder can be shared by several processes. Entries are written to a temporary file and then renamed, so a
+ * reader never sees a partial entry, and eviction runs under a lock file. When the entries go over the maximum size,
+ * the least recently used ones are removed; hits update the modification time of the entry, which is used as the time
+ * of last use.
+ */
+public class CompilationCache {
+
+    private static final String ENTRY_EXTENSION = ".entry";
+    private static final String LOCK_FILE = "cache.lock";
+    private static final int FORMAT = 1;
+
+    private static String compilerVersion = null;
+
+    private final File cacheDir;
+    private final long maxBytes;
+    private final JmmCompiler compiler;
+
+    private final AtomicLong currentBytes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong stores;
+    private final AtomicLong evictions;
+
+    /**
+     * @param cacheDir
+     *            folder of the cache, created if it does not exist
+     * @param maxBytes
+     *            maximum size of the entries, in bytes
+     */
+    public CompilationCache(File cacheDir, long maxBytes) {
+        this.cacheDir = SpecsIo.mkdir(cacheDir);
+        this.maxBytes = maxBytes;
+        this.compiler = new JmmCompiler();
+
+        this.currentBytes = new AtomicLong(getEntries().stream().mapToLong(File::length).sum());
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.stores = new AtomicLong();
+        this.evictions = new AtomicLong();
+
+        if (currentBytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Returns the cached result for the code and config, or compiles the code and stores the result.
+     *
+     * @param code
+     * @param config
+     * @return the result of the compilation
+     */
+    public CompilationResult compile(String code, Map<String, String> config) {
+        boolean keepIntermediate = "true".equals(config.get(JmmCompiler.KEEP_INTERMEDIATE));
+        File entry = getEntryFile(getKey(code, config));
+
+        CompilationResult cached = read(entry, keepIntermediate);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        CompilationResult result = compiler.compile(code, config);
+        write(entry, result);
+
+        return result;
+    }
+
+    /**
+     * @return hit, miss, store and eviction counts of this instance, and the current size of the cache
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("stores", stores.get());
+        stats.put("evictions", evictions.get());
+        stats.put("bytes", currentBytes.get());
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    /**
+     * @param code
+     * @param config
+     * @return the hash that identifies the compilation of the given code with the given config
+     */
+    public static String getKey(String code, Map<String, String> config) {
+        MessageDigest digest = newDigest();
+        update(digest, getCompilerVersion());
+        update(digest, String.valueOf(FORMAT));
+        update(digest, config.getOrDefault("optimize", "false"));
+        update(digest, config.getOrDefault("registerAllocation", "-1"));
+        update(digest, code);
+
+        return toHex(digest.digest());
+    }
+
+    private File getEntryFile(String key) {
+        // Two levels, to keep folders small
+        return new File(new File(cacheDir, key.substring(0, 2)), key + ENTRY_EXTENSION);
+    }
+
+    private List<File> getEntries() {
+        try (Stream<Path> paths = Files.walk(cacheDir.toPath(), 2)) {
+            List<File> entries = new ArrayList<>();
+            paths.map(Path::toFile)
+                    .filter(file -> file.isFile() && file.getName().endsWith(ENTRY_EXTENSION))
+                    .forEach(entries::add);
+            return entries;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list the entries of cache '" + cacheDir + "'", e);
+        }
+    }
+
+    private CompilationResult read(File entry, boolean keepIntermediate) {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry.toPath())))) {
+            if (input.readInt() != FORMAT) {
+                return null;
+            }
+
+            // No length read from a valid entry is larger than the entry itself
+            long entrySize = Files.size(entry.toPath());
+
+            String className = readString(input, entrySize);
+            byte[] classBytes = readBytes(input, entrySize);
+
+            int numReports = checkLength(input.readInt(), entrySize);
+            List<Report> reports = new ArrayList<>(numReports);
+            for (int i = 0; i < numReports; i++) {
+                var report = new Report(ReportType.valueOf(input.readUTF()), Stage.valueOf(input.readUTF()),
+                        input.readInt(), input.readInt(), readString(input, entrySize));
+
+                String exceptionMessage = readString(input, entrySize);
+                if (exceptionMessage != null) {
+                    report.setException(new CachedException(exceptionMessage));
+                }
+                reports.add(report);
+            }
+
+            String ollirCode = readString(input, entrySize);
+            String jasminCode = readString(input, entrySize);
+            if (keepIntermediate && classBytes != null && (ollirCode == null || jasminCode == null)) {
+                return null;
+            }
+
+            // Marks the entry as recently used
+            entry.setLastModified(System.currentTimeMillis());
+
+            return new CompilationResult(className, classBytes, reports, ollirCode, jasminCode);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            SpecsLogs.info("Ignoring unreadable cache entry '" + entry + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(File entry, CompilationResult result) {
+        File folder = SpecsIo.mkdir(entry.getParentFile());
+
+        File tempFile;
+        try {
+            tempFile = File.createTempFile(entry.getName(), ".tmp", folder);
+        } catch (IOException e) {
+            SpecsLogs.info("Could not create cache entry '" + entry + "': " + e.getMessage());
+            return;
+        }
+
+        try {
+            try (var output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+                output.writeInt(FORMAT);
+                writeString(output, result.getClassName());
+                writeBytes(output, result.getClassBytes());
+
+                output.writeInt(result.getReports().size());
+                for (Report report : result.getReports()) {
+                    output.writeUTF(report.getType().name());
+                    output.writeUTF(report.getStage().name());
+                    output.writeInt(report.getLine());
+                    output.writeInt(report.getColumn());
+                    writeString(output, report.getMessage());
+                    writeString(output, report.getException().map(CompilationCache::getMessage).orElse(null));
+                }
+
+                writeString(output, result.getOllirCode());
+                writeString(output, result.getJasminCode());
+            }
+
+            // The entry may already exist, e.g. without the intermediate code, and is replaced
+            long size = tempFile.length();
+            long oldSize = entry.length();
+            move(tempFile, entry);
+
+            stores.incrementAndGet();
+            if (currentBytes.addAndGet(size - oldSize) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            SpecsLogs.info("Could not write cache entry '" + entry + "': " + e.getMessage());
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private static void move(File source, File destination) throws IOException {
+        try {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is under its maximum size. If another thread or process
+     * is already evicting, does nothing.
+     */
+    private void evict() {
+        try (var lockFile = new RandomAccessFile(new File(cacheDir, LOCK_FILE), "rw");
+                FileLock lock = lockFile.getChannel().tryLock()) {
+
+            if (lock == null) {
+                return;
+            }
+
+            List<File> entries = getEntries();
+            long totalBytes = entries.stream().mapToLong(File::length).sum();
+            entries.sort(Comparator.comparingLong(File::lastModified));
+
+            for (File entry : entries) {
+                if (totalBytes <= maxBytes) {
+                    break;
+                }
+
+                long size = entry.length();
+                if (entry.delete()) {
+                    totalBytes -= size;
+                    evictions.incrementAndGet();
+                }
+            }
+
+            currentBytes.set(totalBytes);
+        } catch (OverlappingFileLockException e) {
+            // Another thread of this process is evicting
+        } catch (IOException e) {
+            SpecsLogs.info("Could not evict entries of cache '" + cacheDir + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * The version changes whenever the contents of a class file of the compiler or of the OLLIR and Jasmin libraries
+     * change. Paths and modification times are left out, so a clean rebuild of the same code keeps the entries.
+     */
+    private static synchronized String getCompilerVersion() {
+        if (compilerVersion == null) {
+            MessageDigest digest = newDigest();
+            for (Class<?> aClass : List.of(JmmCompiler.class, ClassUnit.class, ClassFile.class)) {
+                updateWithCodeSource(digest, aClass);
+            }
+            compilerVersion = toHex(digest.digest());
+        }
+
+        return compilerVersion;
+    }
+
+    private static void updateWithCodeSource(MessageDigest digest, Class<?> aClass) {
+        CodeSource codeSource = aClass.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            update(digest, aClass.getName());
+            return;
+        }
+
+        File location;
+        try {
+            location = new File(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            update(digest, codeSource.getLocation().toString());
+            return;
+        }
+
+        // A jar, or a folder with the class files when running from a build folder. Only the contents count, so a
+        // rebuild that produces the same classes, or the same jar in another folder, keeps the version
+        if (!location.isDirectory()) {
+            updateWithFile(digest, location);
+            return;
+        }
+
+        Path root = location.toPath();
+        List<File> files = new ArrayList<>(SpecsIo.getFilesRecursive(location, "class"));
+        files.sort(null);
+        for (File file : files) {
+            update(digest, root.relativize(file.toPath()).toString().replace(File.separatorChar, '/'));
+            updateWithFile(digest, file);
+        }
+    }
+
+    private static void updateWithFile(MessageDigest digest, File file) {
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            update(digest, Integer.toString(bytes.length));
+            digest.update(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read '" + file + "' to compute the compiler version", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // The length separates consecutive values
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String getMessage(Exception exception) {
+        return exception.getMessage() != null ? exception.getMessage() : exception.toString();
+    }
+
+    /**
+     * Stands for the exception of a report read from the cache, which only keeps its message.
+     */
+    private static class CachedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CachedException(String message) {
+            super(message);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        writeBytes(output, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream input, long maxLength) throws IOException {
+        byte[] bytes = readBytes(input, maxLength);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream input, long maxLength) throws IOException {
+        int length = input.readInt();
+        if (length == -1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[checkLength(length, maxLength)];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Checks a length read from an entry before it is used to allocate, so that a corrupt entry is reported as
+     * unreadable instead of running out of memory.
+     */
+    private static int checkLength(int length, long maxLength) throws IOException {
+        if (length < 0 || length > maxLength) {
+            throw new IOException("invalid length " + length);
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,113 @@
+package pt.up.fe.comp.daemon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends requests to a {@link CompileServer}.
+ */
+public class CompileClient {
+
+    private static final int MAX_RETRIES = 20;
+    private static final long RETRY_DELAY_MS = 50;
+
+    private final SocketAddress address;
+
+    public CompileClient(SocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Compiles a file in the server. If the server is busy, tries again a few times, waiting a bit longer each time.
+     *
+     * @param inputFile
+     * @param outputDir
+     *            folder where the server writes the class file
+     * @param optimize
+     * @return the lines of the response, the last one being the result
+     */
+    public List<String> compile(File inputFile, File outputDir, boolean optimize) {
+        String request = String.join(CompileServer.SEPARATOR, CompileServer.COMPILE,
+                getPath(inputFile), getPath(outputDir), Boolean.toString(optimize));
+
+        List<String> response = send(request);
+        for (int retry = 1; retry <= MAX_RETRIES && isBusy(response); retry++) {
+            try {
+                Thread.sleep(RETRY_DELAY_MS * retry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            response = send(request);
+        }
+
+        return response;
+    }
+
+    private static String getPath(File file) {
+        // The server does not share the working directory of the client
+        return file.getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    public List<String> stats() {
+        return send(CompileServer.STATS);
+    }
+
+    public List<String> shutdown() {
+        return send(CompileServer.SHUTDOWN);
+    }
+
+    /**
+     * @param response
+     * @return true if the last line of the response is OK
+     */
+    public static boolean isSuccess(List<String> response) {
+        return !response.isEmpty() && getStatus(response).equals(CompileServer.OK);
+    }
+
+    private static boolean isBusy(List<String> response) {
+        return !response.isEmpty() && getStatus(response).equals(CompileServer.BUSY);
+    }
+
+    private static String getStatus(List<String> response) {
+        String last = response.get(response.size() - 1);
+        int separator = last.indexOf(CompileServer.SEPARATOR);
+        return separator == -1 ? last : last.substring(0, separator);
+    }
+
+    private List<String> send(String request) {
+        try (SocketChannel channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open()) {
+            channel.connect(address);
+
+            Writer writer = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+            writer.write(request);
+            writer.write('\n');
+            writer.flush();
+
+            var reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not send request to the compile server at " + address, e);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package pt.up.fe.comp.daemon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import pt.up.fe.comp.CompilationResult;
+import pt.up.fe.comp.JmmCompiler;
+import pt.up.fe.comp.cache.CompilationCache;
+import pt.up.fe.comp.jmm.jasmin.JasminUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.SpecsLogs;
+
+/**
+ * Keeps a JVM with the compiler loaded and compiles files on request, over a Unix domain socket or a localhost TCP
+ * port.
+ *
+ * <p>
+ * Each connection carries a single request, one line with tab-separated fields, and the response lines are sent back
+ * before the connection is closed. The last line of a response starts with {@link #OK}, {@link #FAILED},
+ * {@link #BUSY} or {@link #ERROR}. Requests:
+ * <ul>
+ * <li>COMPILE &lt;input file&gt; &lt;output folder&gt; &lt;optimize&gt;: compiles the file and writes the class file
+ * to the folder. Responds with a REPORT line per report, then "OK &lt;class file&gt;" or "FAILED".</li>
+ * <li>STATS: responds with one "name=value" line per counter, then "OK".</li>
+ * <li>SHUTDOWN: finishes the requests already accepted and stops the server.</li>
+ * </ul>
+ *
+ * <p>
+ * The acceptor thread only accepts connections. Requests are read by a fixed number of reader threads, one for each
+ * request the compilation threads and their queue can take, and connections that find all readers busy wait in a
+ * queue as large as the one of the compilations. A connection that finds that queue full is answered with BUSY. A
+ * client that does not send its request line within {@link #READ_TIMEOUT_MS}, or sends one longer than
+ * {@link #MAX_REQUEST_LENGTH} characters, is disconnected.
+ *
+ * <p>
+ * Compilations run on a fixed number of threads. Requests that find all threads busy wait in a bounded queue, and a
+ * request that finds the queue full is answered right away with BUSY, so clients can retry later.
+ *
+ * <p>
+ * If the server has a {@link CompilationCache}, files that were already compiled are answered from it.
+ */
+public class CompileServer implements Closeable {
+
+    public static final String COMPILE = "COMPILE";
+    public static final String STATS = "STATS";
+    public static final String SHUTDOWN = "SHUTDOWN";
+
+    public static final String REPORT = "REPORT";
+    public static final String OK = "OK";
+    public static final String FAILED = "FAILED";
+    public static final String BUSY = "BUSY";
+    public static final String ERROR = "ERROR";
+
+    public static final String SEPARATOR = "\t";
+
+    /**
+     * Time a client has to send its request after connecting, in milliseconds.
+     */
+    public static final long READ_TIMEOUT_MS = 10_000;
+
+    /**
+     * Maximum number of characters of a request line.
+     */
+    public static final int MAX_REQUEST_LENGTH = 8192;
+
+    private static final long REJECT_CLOSE_DELAY_MS = 1000;
+
+    // Type bits of a socket in the "unix:mode" attribute
+    private static final int SOCKET_MODE = 0140000;
+    private static final int FILE_TYPE_MASK = 0170000;
+
+    private final SocketAddress address;
+    private final ServerSocketChannel serverChannel;
+    private final ThreadPoolExecutor readers;
+    private final ScheduledExecutorService readTimeouts;
+    private final ThreadPoolExecutor executor;
+    private final JmmCompiler compiler;
+    private final CompilationCache cache;
+    private final ServerStats stats;
+    private final CountDownLatch stopped;
+    private volatile boolean running;
+
+    private CompileServer(ServerSocketChannel serverChannel, int numThreads, int queueSize, CompilationCache cache)
+            throws IOException {
+        this.address = serverChannel.getLocalAddress();
+        this.serverChannel = serverChannel;
+        int numReaders = numThreads + queueSize;
+        this.readers = new ThreadPoolExecutor(numReaders, numReaders, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), newThreadFactory("jmm-server-reader-"));
+        this.readTimeouts = Executors.newSingleThreadScheduledExecutor(newThreadFactory("jmm-server-timeout-"));
+        this.executor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), newThreadFactory("jmm-server-"));
+        this.compiler = new JmmCompiler();
+        this.cache = cache;
+        this.stats = new ServerStats();
+        this.stopped = new CountDownLatch(1);
+        this.running = true;
+    }
+
+    /**
+     * Opens the socket and starts accepting requests in a background thread.
+     *
+     * @param address
+     *            a {@link UnixDomainSocketAddress}, or an {@link InetSocketAddress} (port 0 chooses a free port)
+     * @param numThreads
+     *            number of files compiled at the same time
+     * @param queueSize
+     *            number of requests that can wait for a thread, and of connections that can wait for a reader
+     * @param cache
+     *            cache of compilation results, can be null
+     * @return the running server
+     */
+    public static CompileServer start(SocketAddress address, int numThreads, int queueSize,
+            CompilationCache cache) {
+        if (numThreads < 1 || queueSize < 1) {
+            throw new RuntimeException("Expected at least one thread and a queue with at least one position, got "
+                    + numThreads + " and " + queueSize);
+        }
+
+        try {
+            ServerSocketChannel serverChannel;
+            if (address instanceof UnixDomainSocketAddress) {
+                // A socket file left by a server that did not shut down cleanly would make bind fail
+                deleteSocketFile(((UnixDomainSocketAddress) address).getPath());
+                serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            } else {
+                serverChannel = ServerSocketChannel.open();
+            }
+            serverChannel.bind(address);
+
+            var server = new CompileServer(serverChannel, numThreads, queueSize, cache);
+            var acceptor = new Thread(server::acceptLoop, "jmm-server-acceptor");
+            acceptor.start();
+            return server;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start the compile server at " + address, e);
+        }
+    }
+
+    public static CompileServer start(SocketAddress address, int numThreads, int queueSize) {
+        return start(address, numThreads, queueSize, null);
+    }
+
+    /**
+     * Deletes the file at the path if it is a socket. Any other file is left alone, since the path may have been
+     * mistyped.
+     */
+    private static void deleteSocketFile(Path path) throws IOException {
+        boolean isSocket;
+        try {
+            int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            isSocket = (mode & FILE_TYPE_MASK) == SOCKET_MODE;
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // No "unix" attribute view, sockets are neither regular files, folders nor links
+            isSocket = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+
+        if (!isSocket) {
+            throw new IOException("'" + path + "' exists and is not a socket");
+        }
+        Files.delete(path);
+    }
+
+    /**
+     * @param port
+     * @return the localhost address with the given port
+     */
+    public static SocketAddress getTcpAddress(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * @return the address the server is listening on, with the actual port if port 0 was requested
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Blocks until the server stops, after a SHUTDOWN request or a call to {@link #close()}.
+     */
+    public void awaitTermination() {
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting requests, waits for the ones already accepted and releases the socket.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            SpecsLogs.info("Could not close the server socket: " + e.getMessage());
+        }
+
+        // Requests being read may still be submitted, so the readers finish before the compilation threads
+        readers.shutdown();
+        try {
+            readers.awaitTermination(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            executor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+        readTimeouts.shutdownNow();
+
+        if (address instanceof UnixDomainSocketAddress) {
+            SpecsIo.delete(((UnixDomainSocketAddress) address).getPath().toFile());
+        }
+
+        stopped.countDown();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                // Server was closed
+                break;
+            } catch (IOException e) {
+                SpecsLogs.info("Could not accept connection: " + e.getMessage());
+                continue;
+            }
+
+            try {
+                readers.execute(() -> handle(channel));
+            } catch (RejectedExecutionException e) {
+                if (readers.isShutdown()) {
+                    // Server is closing
+                    close(channel);
+                } else {
+                    stats.rejected();
+                    rejectConnection(channel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers BUSY without reading the request. The connection is closed a moment later: closing it while the request
+     * is still arriving would reset it, and the client could lose the answer.
+     */
+    private void rejectConnection(SocketChannel channel) {
+        try {
+            channel.write(StandardCharsets.UTF_8.encode(BUSY + SEPARATOR + "Too many connections, try again later\n"));
+            channel.shutdownOutput();
+            readTimeouts.schedule(() -> close(channel), REJECT_CLOSE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (IOException | RejectedExecutionException e) {
+            close(channel);
+        }
+    }
+
+    /**
+     * Reads the request in a reader thread and hands compilations to the pool. Closing the channel when the timeout
+     * expires ends a read that is still blocked.
+     */
+    private void handle(SocketChannel channel) {
+        String request;
+        var timeout = readTimeouts.schedule(() -> close(channel), READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        try {
+            request = readRequest(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            timeout.cancel(false);
+            SpecsLogs.info("Could not read request: " + e.getMessage());
+            close(channel);
+            return;
+        }
+
+        if (!timeout.cancel(false)) {
+            SpecsLogs.info("Client did not send a request within " + READ_TIMEOUT_MS + " ms");
+            return;
+        }
+
+        String[] fields = request == null ? new String[] { "" } : request.split(SEPARATOR, -1);
+        switch (fields[0]) {
+        case COMPILE:
+            submitCompile(channel, fields);
+            break;
+        case STATS:
+            respondStats(channel);
+            break;
+        case SHUTDOWN:
+            respond(channel, List.of(OK));
+            // Close from another thread, close waits for the readers to finish
+            new Thread(this::close, "jmm-server-shutdown").start();
+            break;
+        default:
+            respond(channel, List.of(ERROR + SEPARATOR + "Unknown request '" + request + "'"));
+        }
+    }
+
+    /**
+     * Reads the request line, without the line terminator.
+     *
+     * @return the request, or null if the connection was closed before any character
+     */
+    private static String readRequest(Reader reader) throws IOException {
+        var request = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (request.length() == MAX_REQUEST_LENGTH) {
+                throw new IOException("request is longer than " + MAX_REQUEST_LENGTH + " characters");
+            }
+            request.append((char) c);
+        }
+
+        if (c == -1 && request.length() == 0) {
+            return null;
+        }
+
+        int length = request.length();
+        if (length > 0 && request.charAt(length - 1) == '\r') {
+            request.setLength(length - 1);
+        }
+        return request.toString();
+    }
+
+    private void submitCompile(SocketChannel channel, String[] fields) {
+        if (fields.length != 4) {
+            respond(channel, List.of(ERROR + SEPARATOR + "Expected " + COMPILE
+                    + " <input file> <output folder> <optimize>, got " + (fields.length - 1) + " fields"));
+            return;
+        }
+
+        stats.received();
+        try {
+            executor.execute(() -> compile(channel, new File(fields[1]), new File(fields[2]),
+                    Boolean.parseBoolean(fields[3])));
+        } catch (RejectedExecutionException e) {
+            stats.rejected();
+            respond(channel, List.of(BUSY + SEPARATOR + "Queue is full, try again later"));
+        }
+    }
+
+    private void compile(SocketChannel channel, File inputFile, File outputDir, boolean optimize) {
+        long start = System.nanoTime();
+
+        Map<String, String> config = new HashMap<>();
+        config.put("inputFile", inputFile.getPath());
+        config.put("optimize", Boolean.toString(optimize));
+        config.put("registerAllocation", "-1");
+        config.put("debug", "false");
+
+        List<String> lines = new ArrayList<>();
+        boolean success = false;
+        try {
+            if (!inputFile.isFile()) {
+                throw new RuntimeException("Expected a path to an existing input file, got '" + inputFile + "'");
+            }
+
+            String code = SpecsIo.read(inputFile);
+            CompilationResult result = cache != null ? cache.compile(code, config) : compiler.compile(code, config);
+            for (Report report : result.getReports()) {
+                lines.add(REPORT + SEPARATOR + report);
+            }
+
+            if (result.isSuccess()) {
+                SpecsIo.mkdir(outputDir);
+                File classFile = JasminUtils.write(result.getClassName(), result.getClassBytes(), outputDir);
+                lines.add(OK + SEPARATOR + classFile.getAbsolutePath());
+                success = true;
+            } else {
+                lines.add(FAILED);
+            }
+        } catch (RuntimeException e) {
+            lines.add(ERROR + SEPARATOR + e.getMessage());
+        }
+
+        stats.completed(success, System.nanoTime() - start);
+        respond(channel, lines);
+    }
+
+    private void respondStats(SocketChannel channel) {
+        List<String> lines = new ArrayList<>();
+        stats.snapshot(executor.getQueue().size(), executor.getActiveCount())
+                .forEach((name, value) -> lines.add(name + "=" + value));
+        if (cache != null) {
+            cache.getStats().forEach((name, value) -> lines.add("cache." + name + "=" + value));
+        }
+        lines.add(OK);
+
+        respond(channel, lines);
+    }
+
+    private static void respond(SocketChannel channel, List<String> lines) {
+        try (var writer = new PrintWriter(
+                new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                // Responses are line based, reports with several lines are joined
+                writer.print(line.replace('\n', ' ').replace("\r", ""));
+                writer.print('\n');
+            }
+        } finally {
+            close(channel);
+        }
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            SpecsLogs.info("Could not close connection: " + e.getMessage());
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package pt.up.fe.comp.daemon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link CompileServer}, updated concurrently by the threads that serve requests.
+ */
+public class ServerStats {
+
+    private final long startNanos;
+    private final AtomicLong received;
+    private final AtomicLong succeeded;
+    private final AtomicLong failed;
+    private final AtomicLong rejected;
+    private final AtomicLong compileNanos;
+
+    public ServerStats() {
+        this.startNanos = System.nanoTime();
+        this.received = new AtomicLong();
+        this.succeeded = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.compileNanos = new AtomicLong();
+    }
+
+    public void received() {
+        received.incrementAndGet();
+    }
+
+    public void rejected() {
+        rejected.incrementAndGet();
+    }
+
+    public void completed(boolean success, long nanos) {
+        (success ? succeeded : failed).incrementAndGet();
+        compileNanos.addAndGet(nanos);
+    }
+
+    /**
+     * @param queued
+     *            requests waiting for a thread
+     * @param active
+     *            requests being compiled
+     * @return the current values, in a fixed order
+     */
+    public Map<String, Long> snapshot(int queued, int active) {
+        long completed = succeeded.get() + failed.get();
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("uptimeMs", (System.nanoTime() - startNanos) / 1_000_000);
+        values.put("received", received.get());
+        values.put("succeeded", succeeded.get());
+        values.put("failed", failed.get());
+        values.put("rejected", rejected.get());
+        values.put("queued", (long) queued);
+        values.put("active", (long) active);
+        values.put("compileMs", compileNanos.get() / 1_000_000);
+        values.put("avgCompileUs", completed == 0 ? 0 : compileNanos.get() / completed / 1_000);
+        return values;
+    }
+}
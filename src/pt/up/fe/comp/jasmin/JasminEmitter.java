@@ -17,8 +17,11 @@ public class JasminEmitter implements JasminBackend {
             throw new RuntimeException(e);
         }
 
-        System.out.println(jasminCode);
+        var config = ollirResult.getConfig();
+        if (config != null && "true".equals(config.get("debug"))) {
+            System.out.println(jasminCode);
+        }
 
-        return new JasminResult(ollirResult, jasminCode, ollirResult.getReports());
+        return new JasminResult(ollirResult, jasminCode, Collections.emptyList());
     }
 }
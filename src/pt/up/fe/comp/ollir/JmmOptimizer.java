@@ -1,23 +1,44 @@
 package pt.up.fe.comp.ollir;
 
+import org.specs.comp.ollir.ClassUnit;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ollir.JmmOptimization;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 
 import java.util.Collections;
+import java.util.Map;
 
 public class JmmOptimizer implements JmmOptimization {
 
     @Override
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
-        OllirGenerator ollirGenerator = new OllirGenerator(semanticsResult.getSymbolTable());
-        ollirGenerator.visit(semanticsResult.getRootNode());
+        Map<String, String> config = semanticsResult.getConfig();
 
-        String ollirCode = ollirGenerator.getCode();
+        OllirClassBuilder ollirClassBuilder = new OllirClassBuilder(semanticsResult.getSymbolTable());
+        ollirClassBuilder.visit(semanticsResult.getRootNode());
+        ClassUnit classUnit = ollirClassBuilder.getOllirClass();
 
-        System.out.println("OLLIR CODE:\n" + ollirCode);
+        // The text path prints the class and parses it back, kept to check that the printed code is complete
+        if (isEnabled(config, "ollirFromText")) {
+            String ollirCode = new OllirPrinter().print(classUnit);
+            if (isEnabled(config, "debug")) {
+                System.out.println("OLLIR CODE:\n" + ollirCode);
+            }
+            return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+        }
 
-        return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+        OllirResult ollirResult = new OllirResult(semanticsResult, classUnit,
+                () -> new OllirPrinter().print(classUnit), Collections.emptyList());
+
+        if (isEnabled(config, "debug")) {
+            System.out.println("OLLIR CODE:\n" + ollirResult.getOllirCode());
+        }
+
+        return ollirResult;
+    }
+
+    private static boolean isEnabled(Map<String, String> config, String key) {
+        return config != null && "true".equals(config.get(key));
     }
 
 }
@@ -0,0 +1,489 @@
+package pt.up.fe.comp.ollir;
+
+import org.specs.comp.ollir.AccessModifiers;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.CallType;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.CondBranchInstruction;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Field;
+import org.specs.comp.ollir.GotoInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.OpCondInstruction;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.PutFieldInstruction;
+import org.specs.comp.ollir.ReturnInstruction;
+import org.specs.comp.ollir.SingleOpCondInstruction;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.UnaryOpInstruction;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the OLLIR {@link ClassUnit} directly from the AST, without generating and parsing OLLIR text. The text of the
+ * class, when needed, is written from it by {@link OllirPrinter}.
+ */
+public class OllirClassBuilder extends AJmmVisitor<Integer, Integer> {
+    private final ClassUnit classUnit;
+    private final SymbolTable symbolTable;
+    private final OllirContext context;
+    private final List<String> labels;
+    private Method method;
+    private int labelCounter;
+
+    public OllirClassBuilder(SymbolTable symbolTable) {
+        this.classUnit = new ClassUnit();
+        this.symbolTable = symbolTable;
+        this.context = new OllirContext(symbolTable);
+        this.labels = new ArrayList<>();
+        this.method = null;
+        this.labelCounter = 0;
+
+        addVisit("Start", this::startVisit);
+
+        addVisit("ClassDeclaration", this::classDeclVisit);
+
+        addVisit("MainMethod", this::mainMethodVisit);
+        addVisit("InstanceMethod", this::instanceMethodVisit);
+
+        addVisit("CallExpression", this::callExpressionVisit);
+
+        addVisit("IfStatement", this::ifStatementVisit);
+        addVisit("WhileStatement", this::whileStatementVisit);
+        addVisit("AssignmentStatement", this::assignmentStatementVisit);
+
+        addVisit("UnaryOp", this::unaryOpVisit);
+
+        addVisit("CurlyStatement", this::curlyStatementVisit);
+    }
+
+    /**
+     * @return The built class, with the variable tables of its methods already built
+     */
+    public ClassUnit getOllirClass() {
+        return classUnit;
+    }
+
+    private void addInstruction(Instruction instruction) {
+        method.addInstr(instruction);
+
+        for (String label : labels) {
+            method.addLabel(label, instruction);
+        }
+        labels.clear();
+    }
+
+    private void addInstructions(List<Instruction> instructions) {
+        for (Instruction instruction : instructions) {
+            addInstruction(instruction);
+        }
+    }
+
+    private void addLabel(String label) {
+        labels.add(label);
+    }
+
+    private void addParameters(String methodSignature) {
+        int paramId = method.isStaticMethod() ? 0 : 1;
+
+        List<Symbol> params = symbolTable.getParameters(methodSignature);
+        if (params != null) {
+            for (Symbol param : params) {
+                method.addParam(OllirElements.getParameter(param.getName(), OllirUtils.getCode(param.getType()),
+                        paramId++));
+            }
+        }
+    }
+
+    private Integer curlyStatementVisit(JmmNode node, Integer integer) {
+        for (JmmNode child : node.getChildrenView()) {
+            visit(child);
+        }
+        return 0;
+    }
+
+    private Integer startVisit(JmmNode start, Integer dummy) {
+        for (String importString : symbolTable.getImports()) {
+            classUnit.addImport(importString);
+        }
+
+        for (JmmNode child : start.getChildrenView()) {
+            visit(child);
+        }
+
+        classUnit.buildVarTables();
+
+        return 0;
+    }
+
+    private Integer classDeclVisit(JmmNode classDecl, Integer dummy) {
+        classUnit.setClassAccessModifier(AccessModifiers.PUBLIC);
+        classUnit.setClassName(symbolTable.getClassName());
+        String superClass = symbolTable.getSuper();
+        if (superClass != null) {
+            classUnit.setSuperClass(superClass);
+        }
+
+        for (var symbol : symbolTable.getFields()) {
+            Field field = new Field();
+            field.setFieldAccessModifier(AccessModifiers.PRIVATE);
+            field.setFieldName(symbol.getName());
+            field.setFieldType(OllirElements.getType(OllirUtils.getCode(symbol.getType())));
+            classUnit.addField(field);
+        }
+
+        method = new Method(classUnit);
+        method.setConstructMethod();
+        addInstruction(new CallInstruction(CallType.invokespecial, OllirElements.getThis(symbolTable.getClassName()),
+                OllirElements.getMethodName("<init>"), new ArrayList<>(), OllirElements.getType("V")));
+        method.setReturnType(OllirElements.getType("V"));
+        method.setMethodName(symbolTable.getClassName());
+        classUnit.addMethod(method);
+
+        int index = 0;
+        for (int i = 0; i < classDecl.getNumChildren(); i++) {
+            String childKind = classDecl.getJmmChild(i).getKind();
+            if (childKind.equals("MainMethod") || childKind.equals("InstanceMethod")) {
+                index = i;
+                break;
+            }
+        }
+
+        for (JmmNode child : classDecl.getChildrenView().subList(index, classDecl.getNumChildren())) {
+            visit(child);
+        }
+
+        return 0;
+    }
+
+    private Integer mainMethodVisit(JmmNode mainMethod, Integer dummy) {
+        context.startMethod("main");
+        method = new Method(classUnit);
+        method.setMethodAccessModifier(AccessModifiers.PUBLIC);
+        method.setStaticMethod();
+        addParameters("main");
+
+        //Every child except Arguments
+        for (int i = 1; i < mainMethod.getNumChildren(); i++) {
+            visit(mainMethod.getJmmChild(i));
+        }
+
+        ReturnInstruction ret = new ReturnInstruction();
+        ret.setReturnType(OllirElements.getType("V"));
+        addInstruction(ret);
+
+        method.setReturnType(OllirElements.getType("V"));
+        method.setMethodName("main");
+        classUnit.addMethod(method);
+        labels.clear();
+
+        return 0;
+    }
+
+    private Integer instanceMethodVisit(JmmNode instanceMethod, Integer dummy) {
+        String methodSignature = instanceMethod.getJmmChild(1).get("name");
+        context.startMethod(methodSignature);
+        method = new Method(classUnit);
+        method.setMethodAccessModifier(AccessModifiers.PUBLIC);
+        addParameters(methodSignature);
+
+        //Every child except method information and arguments
+        for (int i = 3; i < instanceMethod.getNumChildren(); i++) {
+            visit(instanceMethod.getJmmChild(i));
+        }
+
+        method.setReturnType(OllirElements.getType(OllirUtils.getCode(symbolTable.getReturnType(methodSignature))));
+        method.setMethodName(methodSignature);
+        classUnit.addMethod(method);
+        labels.clear();
+
+        return 0;
+    }
+
+    private Integer callExpressionVisit(JmmNode callExpression, Integer dummy) {
+        OllirExpressionsBuilder expressionsBuilder = new OllirExpressionsBuilder(symbolTable, context);
+        addInstructions(expressionsBuilder.visit(callExpression).getInstructions());
+        return 0;
+    }
+
+    /**
+     * Adds the instructions of a condition. For operations, the last one is left out, since it is replaced by the branch
+     * @param condition
+     * @param fragment
+     */
+    private void addConditionInstructions(JmmNode condition, OllirFragment fragment) {
+        List<Instruction> instructions = fragment.getInstructions();
+        boolean isOperation = condition.getKind().equals("BinOp") || condition.getKind().equals("UnaryOp");
+        if (!isOperation) {
+            // e.g. the getfield of a field
+            addInstructions(instructions);
+        }
+        else if (!instructions.isEmpty()) {
+            addInstructions(instructions.subList(0, instructions.size() - 1));
+        }
+    }
+
+    /**
+     * @param fragment
+     * @return The operation of the last instruction of the fragment, which must be an assignment
+     */
+    private Instruction getLastRhs(OllirFragment fragment) {
+        List<Instruction> instructions = fragment.getInstructions();
+        Instruction last = instructions.isEmpty() ? null : instructions.get(instructions.size() - 1);
+        if (!(last instanceof AssignInstruction)) {
+            throw new RuntimeException("Expected the expression to end with an assignment");
+        }
+        return ((AssignInstruction) last).getRhs();
+    }
+
+    private CondBranchInstruction getBinaryCondition(Element left, OperationType operationType, Element right) {
+        return new OpCondInstruction(new BinaryOpInstruction(left,
+                OllirElements.getOperation(operationType, "bool"), right));
+    }
+
+    private Integer ifStatementVisit(JmmNode ifStatement, Integer dummy) {
+        JmmNode ifCondition = ifStatement.getJmmChild(0);
+        JmmNode ifBody = ifStatement.getJmmChild(1);
+        JmmNode elseStatement = ifStatement.getJmmChild(2);
+
+        int label = this.labelCounter++;
+
+        JmmNode condition = ifCondition.getJmmChild(0);
+        OllirExpressionsBuilder expressionsBuilder = new OllirExpressionsBuilder(symbolTable, context);
+        OllirFragment fragment = expressionsBuilder.visit(condition);
+
+        addConditionInstructions(condition, fragment);
+
+        CondBranchInstruction branch;
+        switch (condition.getKind()) {
+            case "BinOp":
+                BinaryOpInstruction binaryOp = (BinaryOpInstruction) getLastRhs(fragment);
+                switch (condition.get("op")) {
+                    case "lt":
+                        branch = getBinaryCondition(binaryOp.getLeftOperand(), OperationType.GTE,
+                                binaryOp.getRightOperand());
+                        break;
+                    case "and":
+                        Operand leftSideTemp = OllirElements.getOperand(context.getNewVariableName(), "bool");
+                        addInstruction(new AssignInstruction(leftSideTemp, OllirElements.getType("bool"),
+                                new UnaryOpInstruction(OllirElements.getOperation(OperationType.NOTB, "bool"),
+                                        binaryOp.getLeftOperand())));
+                        Operand rightSideTemp = OllirElements.getOperand(context.getNewVariableName(), "bool");
+                        addInstruction(new AssignInstruction(rightSideTemp, OllirElements.getType("bool"),
+                                new UnaryOpInstruction(OllirElements.getOperation(OperationType.NOTB, "bool"),
+                                        binaryOp.getRightOperand())));
+                        branch = getBinaryCondition(leftSideTemp, OperationType.ORB, rightSideTemp);
+                        break;
+                    default:
+                        throw new RuntimeException("Unsupported if condition operation '" + condition.get("op") + "'");
+                }
+                break;
+            case "UnaryOp":
+                UnaryOpInstruction unaryOp = (UnaryOpInstruction) getLastRhs(fragment);
+                branch = new SingleOpCondInstruction(new SingleOpInstruction(unaryOp.getOperand()));
+                break;
+            case "Literal":
+                String value = condition.get("value").equals("true") ? "0" : "1";
+                branch = new SingleOpCondInstruction(new SingleOpInstruction(OllirElements.getLiteral(value, "bool")));
+                break;
+            case "Identifier":
+            case "CallExpression":
+                branch = new OpCondInstruction(new UnaryOpInstruction(
+                        OllirElements.getOperation(OperationType.NOTB, "bool"), fragment.getElement()));
+                break;
+            default:
+                throw new RuntimeException("Unsupported if condition of kind '" + condition.getKind() + "'");
+        }
+        branch.setLabel("else" + label);
+        addInstruction(branch);
+
+        //Visit body
+        for (JmmNode child : ifBody.getChildrenView()) {
+            visit(child);
+        }
+
+        addInstruction(new GotoInstruction("endif" + label));
+
+        //Visit else
+        addLabel("else" + label);
+
+        for (JmmNode child : elseStatement.getChildrenView()) {
+            visit(child);
+        }
+
+        addLabel("endif" + label);
+
+        return 0;
+    }
+
+    private Integer whileStatementVisit(JmmNode whileStatement, Integer dummy) {
+        JmmNode whileCondition = whileStatement.getJmmChild(0);
+        JmmNode whileBody = whileStatement.getJmmChild(1);
+
+        int label = this.labelCounter++;
+
+        addLabel("Loop" + label);
+
+        JmmNode condition = whileCondition.getJmmChild(0);
+        OllirExpressionsBuilder expressionsBuilder = new OllirExpressionsBuilder(symbolTable, context);
+        OllirFragment fragment = expressionsBuilder.visit(condition);
+
+        addConditionInstructions(condition, fragment);
+
+        CondBranchInstruction branch;
+        switch (condition.getKind()) {
+            case "BinOp":
+                BinaryOpInstruction binaryOp = (BinaryOpInstruction) getLastRhs(fragment);
+                switch (condition.get("op")) {
+                    case "lt":
+                        branch = getBinaryCondition(binaryOp.getLeftOperand(), OperationType.LTH,
+                                binaryOp.getRightOperand());
+                        break;
+                    case "and":
+                        branch = getBinaryCondition(binaryOp.getLeftOperand(), OperationType.ANDB,
+                                binaryOp.getRightOperand());
+                        break;
+                    default:
+                        throw new RuntimeException("Unsupported while condition operation '" + condition.get("op") + "'");
+                }
+                break;
+            case "UnaryOp":
+                branch = new OpCondInstruction((UnaryOpInstruction) getLastRhs(fragment));
+                break;
+            case "Literal":
+            case "Identifier":
+            case "CallExpression":
+                branch = new SingleOpCondInstruction(new SingleOpInstruction(fragment.getElement()));
+                break;
+            default:
+                throw new RuntimeException("Unsupported while condition of kind '" + condition.getKind() + "'");
+        }
+        branch.setLabel("Body" + label);
+        addInstruction(branch);
+        addInstruction(new GotoInstruction("EndLoop" + label));
+
+        addLabel("Body" + label);
+
+        for (JmmNode child : whileBody.getChildrenView()) {
+            visit(child);
+        }
+        addInstruction(new GotoInstruction("Loop" + label));
+
+        addLabel("EndLoop" + label);
+
+        return 0;
+    }
+
+    private Integer assignmentStatementVisit(JmmNode assignmentStatement, Integer dummy) {
+        JmmNode leftSide = assignmentStatement.getJmmChild(0);
+        JmmNode rightSide = assignmentStatement.getJmmChild(1);
+
+        OllirExpressionsBuilder expressionsBuilder = new OllirExpressionsBuilder(symbolTable, context);
+        OllirFragment fragment = expressionsBuilder.visit(rightSide);
+
+        switch (leftSide.getKind()) {
+            case "Identifier":
+                Element left = expressionsBuilder.visit(leftSide).getElement();
+                boolean isField = leftSide.getOptional("field").isPresent();
+
+                if (rightSide.getKind().equals("Literal") || (isField && rightSide.getKind().equals("Identifier"))) {
+                    addInstructions(fragment.getInstructions());
+                    if (isField) {
+                        addInstruction(putField(left, fragment.getElement()));
+                    } else {
+                        String type = OllirElements.getTypeCode(left);
+                        addInstruction(new AssignInstruction(left, OllirElements.getType(type),
+                                new SingleOpInstruction(fragment.getElement())));
+                    }
+                }
+                else if (isField && rightSide.getKind().equals("Array")) {
+                    // The fragment only computes the index, the element is read into a new variable
+                    addInstructions(fragment.getInstructions());
+
+                    String type = OllirElements.getTypeCode(fragment.getElement());
+                    Operand newVar = OllirElements.getOperand(context.getNewVariableName(), type);
+                    addInstruction(new AssignInstruction(newVar, OllirElements.getType(type),
+                            new SingleOpInstruction(fragment.getElement())));
+                    addInstruction(putField(left, newVar));
+                }
+                else if (isField) {
+                    // The last instruction stores the value in the field name, so it goes to a new variable instead
+                    List<Instruction> instructions = fragment.getInstructions();
+                    Instruction rhs = getLastRhs(fragment);
+                    AssignInstruction last = (AssignInstruction) instructions.get(instructions.size() - 1);
+                    addInstructions(instructions.subList(0, instructions.size() - 1));
+
+                    String type = OllirElements.getTypeCode(fragment.getElement());
+                    Operand newVar = OllirElements.getOperand(context.getNewVariableName(), type);
+                    addInstruction(new AssignInstruction(newVar, last.getTypeOfAssign(), rhs));
+                    addInstruction(putField(left, newVar));
+                }
+                else {
+                    addInstructions(fragment.getInstructions());
+                    if (rightSide.getKind().equals("Identifier") || rightSide.getKind().equals("Array")) {
+                        String type = OllirElements.getTypeCode(left);
+                        addInstruction(new AssignInstruction(left, OllirElements.getType(type),
+                                new SingleOpInstruction(fragment.getElement())));
+                    }
+                }
+                break;
+            case "Index":
+                OllirFragment indexFragment = expressionsBuilder.visit(leftSide);
+                String type = OllirElements.getTypeCode(indexFragment.getElement());
+
+                addInstructions(fragment.getInstructions());
+                addInstructions(indexFragment.getInstructions());
+
+                addInstruction(new AssignInstruction(indexFragment.getElement(), OllirElements.getType(type),
+                        new SingleOpInstruction(fragment.getElement())));
+                break;
+        }
+
+        return 0;
+    }
+
+    private PutFieldInstruction putField(Element field, Element value) {
+        return new PutFieldInstruction(OllirElements.getThis(symbolTable.getClassName()), field, value,
+                OllirElements.getType("V"));
+    }
+
+    private Integer unaryOpVisit(JmmNode unaryOp, Integer dummy) {
+        if (!unaryOp.get("op").equals("return")) {
+            return 0;
+        }
+
+        ReturnInstruction ret;
+        if (unaryOp.getNumChildren() == 0) {
+            ret = new ReturnInstruction();
+            ret.setReturnType(OllirElements.getType("V"));
+        }
+        else {
+            JmmNode child = unaryOp.getJmmChild(0);
+            OllirExpressionsBuilder expressionsBuilder = new OllirExpressionsBuilder(symbolTable, context);
+            OllirFragment fragment = expressionsBuilder.visit(child);
+            addInstructions(fragment.getInstructions());
+
+            String retType;
+            if (child.getKind().equals("Literal")) {
+                retType = child.get("type").equals("int") ? "i32" : "bool";
+            } else {
+                retType = OllirUtils.getCode(symbolTable.getReturnType(OllirUtils.getParentMethodSignature(unaryOp)));
+            }
+
+            ret = new ReturnInstruction(fragment.getElement());
+            ret.setReturnType(OllirElements.getType(retType));
+        }
+        addInstruction(ret);
+
+        return 0;
+    }
+}
@@ -0,0 +1,61 @@
+package pt.up.fe.comp.ollir;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * State of the OLLIR generation of a single compilation, passed to the visitors instead of being kept in static fields.
+ * Temporaries are numbered from t0 in each method, so the generated code does not depend on what was compiled before
+ * or at the same time.
+ */
+public class OllirContext {
+    private final SymbolTable symbolTable;
+    private Set<String> reservedNames;
+    private int tempCounter;
+
+    public OllirContext(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        this.reservedNames = Collections.emptySet();
+        this.tempCounter = 0;
+    }
+
+    /**
+     * Restarts the numbering of temporaries for a new method
+     * @param methodSignature
+     */
+    public void startMethod(String methodSignature) {
+        Set<String> names = new HashSet<>();
+        addNames(names, symbolTable.getParameters(methodSignature));
+        addNames(names, symbolTable.getLocalVariables(methodSignature));
+
+        this.reservedNames = names;
+        this.tempCounter = 0;
+    }
+
+    private static void addNames(Set<String> names, List<Symbol> symbols) {
+        if (symbols == null) {
+            return;
+        }
+
+        for (Symbol symbol : symbols) {
+            names.add(symbol.getName());
+        }
+    }
+
+    /**
+     * @return New temporary variable, which never has the name of a parameter or local variable of the current method
+     */
+    public String getNewVariableName() {
+        String name;
+        do {
+            name = "t" + tempCounter++;
+        } while (reservedNames.contains(name));
+
+        return name;
+    }
+}
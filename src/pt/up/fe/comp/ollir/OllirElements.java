@@ -0,0 +1,138 @@
+package pt.up.fe.comp.ollir;
+
+import org.specs.comp.ollir.ArrayType;
+import org.specs.comp.ollir.ClassType;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.ElementType;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.Type;
+
+/**
+ * Creates OLLIR elements and types from the same type codes used in the OLLIR text (e.g. "i32", "array.i32"), building
+ * the same objects the OLLIR parser creates for them.
+ */
+public class OllirElements {
+
+    /**
+     * @param typeCode Type as written in OLLIR, without the leading dot
+     * @return A new OLLIR type
+     */
+    public static Type getType(String typeCode){
+        if(typeCode.startsWith("array.")){
+            String elementCode = typeCode.substring("array.".length());
+            ElementType elementType = getElementType(elementCode);
+
+            ArrayType arrayType = new ArrayType();
+            arrayType.setNumDimensions(1);
+            arrayType.setTypeOfElements(elementType);
+            if(elementType == ElementType.OBJECTREF){
+                arrayType.setElementClass(elementCode);
+            }
+            else if(elementType == ElementType.STRING){
+                arrayType.setElementClass("String");
+            }
+            return arrayType;
+        }
+
+        ElementType elementType = getElementType(typeCode);
+        if(elementType == ElementType.OBJECTREF){
+            return new ClassType(elementType, typeCode);
+        }
+        return new Type(elementType);
+    }
+
+    private static ElementType getElementType(String typeCode){
+        switch (typeCode){
+            case "i32":
+                return ElementType.INT32;
+            case "bool":
+                return ElementType.BOOLEAN;
+            case "String":
+                return ElementType.STRING;
+            case "V":
+                return ElementType.VOID;
+            default:
+                return ElementType.OBJECTREF;
+        }
+    }
+
+    /**
+     * Gets the type code of an element, the inverse of {@link #getType(String)}
+     * @param element
+     * @return Type code, without the leading dot
+     */
+    public static String getTypeCode(Element element){
+        return getTypeCode(element.getType());
+    }
+
+    public static String getTypeCode(Type type){
+        switch (type.getTypeOfElement()){
+            case INT32:
+                return "i32";
+            case BOOLEAN:
+                return "bool";
+            case STRING:
+                return "String";
+            case VOID:
+                return "V";
+            case ARRAYREF:
+                ArrayType arrayType = (ArrayType) type;
+                switch (arrayType.getArrayType()){
+                    case OBJECTREF:
+                    case CLASS:
+                        return "array." + arrayType.getElementClass();
+                    default:
+                        return "array." + getTypeCode(new Type(arrayType.getArrayType()));
+                }
+            default:
+                return ((ClassType) type).getName();
+        }
+    }
+
+    /**
+     * Creates an operand from its full code (e.g. "a.i32" or "a.array.i32"), as returned by
+     * {@link OllirUtils#getIdentifierCode}
+     * @param code
+     * @return Operand
+     */
+    public static Operand getOperand(String code){
+        int dot = code.indexOf('.');
+        if(dot == -1){
+            throw new RuntimeException("Could not build an OLLIR operand from '" + code + "'");
+        }
+        return getOperand(code.substring(0, dot), code.substring(dot + 1));
+    }
+
+    public static Operand getOperand(String name, String typeCode){
+        return new Operand(name, getType(typeCode));
+    }
+
+    public static Operand getParameter(String name, String typeCode, int paramId){
+        Operand operand = getOperand(name, typeCode);
+        operand.setParamId(paramId);
+        return operand;
+    }
+
+    public static Operand getThis(String className){
+        return new Operand("this", new ClassType(ElementType.THIS, className));
+    }
+
+    public static LiteralElement getLiteral(String literal, String typeCode){
+        return new LiteralElement(literal, getType(typeCode));
+    }
+
+    /**
+     * @param name Method name
+     * @return The string literal used as second argument of invocations
+     */
+    public static LiteralElement getMethodName(String name){
+        return new LiteralElement("\"" + name + "\"", new Type(ElementType.STRING));
+    }
+
+    public static Operation getOperation(OperationType operationType, String typeCode){
+        return new Operation(operationType, getType(typeCode));
+    }
+}
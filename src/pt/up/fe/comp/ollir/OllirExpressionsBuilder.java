@@ -0,0 +1,368 @@
+package pt.up.fe.comp.ollir;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.CallType;
+import org.specs.comp.ollir.ClassType;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.ElementType;
+import org.specs.comp.ollir.GetFieldInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.UnaryOpInstruction;
+import pt.up.fe.comp.MethodScope;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the OLLIR instructions of an expression for {@link OllirClassBuilder}.
+ */
+public class OllirExpressionsBuilder extends AJmmVisitor<Integer, OllirFragment> {
+    private final SymbolTable symbolTable;
+    private final OllirContext context;
+
+    public OllirExpressionsBuilder(SymbolTable symbolTable, OllirContext context) {
+        this.symbolTable = symbolTable;
+        this.context = context;
+
+        addVisit("BinOp", this::binOpVisit);
+        addVisit("Literal", this::literalVisit);
+        addVisit("UnaryOp", this::unaryOpVisit);
+        addVisit("Identifier", this::identifierVisit);
+        addVisit("NewExp", this::newExpVisit);
+        addVisit("CallExpression", this::callExpressionVisit);
+        addVisit("Array", this::arrayOrIndexVisit);
+        addVisit("Index", this::arrayOrIndexVisit);
+    }
+
+    private OllirFragment binOpVisit(JmmNode jmmNode, Integer integer) {
+        // Chains such as a + b + c are nested on the left operand. They are followed with a loop instead of recursion,
+        // and the instructions of all operations are added to the same list
+        List<JmmNode> chain = new ArrayList<>();
+        JmmNode current = jmmNode;
+        while (current.getKind().equals("BinOp")) {
+            chain.add(current);
+            current = current.getJmmChild(0);
+        }
+
+        OllirFragment leftFragment = visit(current);
+        List<Instruction> instructions = new ArrayList<>(leftFragment.getInstructions());
+        Element leftElement = leftFragment.getElement();
+
+        // From the innermost operation to jmmNode, the same order as visiting recursively
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            JmmNode binOp = chain.get(i);
+            OllirFragment rightFragment = visit(binOp.getJmmChild(1));
+            instructions.addAll(rightFragment.getInstructions());
+
+            leftElement = addBinOp(binOp, instructions, leftElement, rightFragment.getElement());
+        }
+
+        return new OllirFragment(instructions, leftElement);
+    }
+
+    /**
+     * Adds the instruction of the given operation, which assigns it to a new variable.
+     * 
+     * @return the variable
+     */
+    private Operand addBinOp(JmmNode jmmNode, List<Instruction> instructions, Element leftElement,
+            Element rightElement) {
+        String name = OllirUtils.getVariableName(jmmNode, context);
+
+        String type;
+        OperationType operationType;
+        String operationTypeCode;
+        switch (jmmNode.get("op")) {
+            case "lt":
+                type = "bool";
+                operationType = OperationType.LTH;
+                operationTypeCode = "i32";
+                break;
+            case "and":
+                type = "bool";
+                operationType = OperationType.ANDB;
+                operationTypeCode = "bool";
+                break;
+            case "add":
+                type = "i32";
+                operationType = OperationType.ADD;
+                operationTypeCode = "i32";
+                break;
+            case "sub":
+                type = "i32";
+                operationType = OperationType.SUB;
+                operationTypeCode = "i32";
+                break;
+            case "mult":
+                type = "i32";
+                operationType = OperationType.MUL;
+                operationTypeCode = "i32";
+                break;
+            case "div":
+                type = "i32";
+                operationType = OperationType.DIV;
+                operationTypeCode = "i32";
+                break;
+            default:
+                throw new RuntimeException("Unsupported binary operation '" + jmmNode.get("op") + "'");
+        }
+
+        Operand variable = OllirElements.getOperand(name, type);
+        instructions.add(new AssignInstruction(variable, OllirElements.getType(type),
+                new BinaryOpInstruction(leftElement,
+                        OllirElements.getOperation(operationType, operationTypeCode), rightElement)));
+
+        return variable;
+    }
+
+    private OllirFragment literalVisit(JmmNode jmmNode, Integer integer) {
+        Element variable = null;
+        switch (jmmNode.get("type")) {
+            case "int":
+                variable = OllirElements.getLiteral(jmmNode.get("value"), "i32");
+                break;
+            case "boolean":
+                switch (jmmNode.get("value")) {
+                    case "true":
+                        variable = OllirElements.getLiteral("1", "bool");
+                        break;
+                    case "false":
+                        variable = OllirElements.getLiteral("0", "bool");
+                        break;
+                }
+                break;
+        }
+        return new OllirFragment(new ArrayList<>(), variable);
+    }
+
+    private OllirFragment unaryOpVisit(JmmNode jmmNode, Integer integer) {
+        List<Instruction> instructions = new ArrayList<>();
+        Operand variable;
+        OllirFragment child = visit(jmmNode.getJmmChild(0));
+
+        switch (jmmNode.get("op")) {
+            case "not":
+                variable = OllirElements.getOperand(OllirUtils.getVariableName(jmmNode, context), "bool");
+                instructions.addAll(child.getInstructions());
+                instructions.add(new AssignInstruction(variable, OllirElements.getType("bool"),
+                        new UnaryOpInstruction(OllirElements.getOperation(OperationType.NOTB, "bool"),
+                                child.getElement())));
+                break;
+            case "length":
+                variable = OllirElements.getOperand(OllirUtils.getVariableName(jmmNode, context), "i32");
+                instructions.addAll(child.getInstructions());
+                instructions.add(new AssignInstruction(variable, OllirElements.getType("i32"),
+                        new CallInstruction(CallType.arraylength, child.getElement(), OllirElements.getType("i32"))));
+                break;
+            default:
+                throw new RuntimeException("Unsupported unary operation '" + jmmNode.get("op") + "'");
+        }
+
+        return new OllirFragment(instructions, variable);
+    }
+
+    private OllirFragment identifierVisit(JmmNode jmmNode, Integer integer) {
+        String code = OllirUtils.getIdentifierCode(jmmNode, symbolTable);
+
+        // Class names, e.g. in 'new A()', have no variable
+        if (code.equals("V")) {
+            if (jmmNode.getJmmParent().getKind().equals("NewExp")) {
+                return new OllirFragment(new ArrayList<>(), null);
+            }
+            throw new RuntimeException("Could not find variable '" + jmmNode.get("name") + "'");
+        }
+
+        Operand variable = OllirElements.getOperand(code);
+
+        int parameterNumber = MethodScope.get(symbolTable, OllirUtils.getParentMethodSignature(jmmNode))
+                .getParameterNumber(jmmNode.get("name"));
+        if (parameterNumber > 0) {
+            variable.setParamId(parameterNumber);
+        }
+
+        if (jmmNode.getOptional("field").isPresent()) {
+            if (!(jmmNode.getJmmParent().getKind().equals("AssignmentStatement")
+                    && jmmNode.getJmmParent().getJmmChild(0).equals(jmmNode))) {
+                return getField(variable);
+            }
+        }
+
+        return new OllirFragment(new ArrayList<>(), variable);
+    }
+
+    /**
+     * Gets the instructions for retrieval of a class field variable
+     * @param field
+     * @return OllirFragment with the getfield instruction and the variable where the field is stored
+     */
+    private OllirFragment getField(Operand field) {
+        String type = OllirElements.getTypeCode(field);
+        Operand variable = OllirElements.getOperand(context.getNewVariableName(), type);
+
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(new AssignInstruction(variable, OllirElements.getType(type),
+                new GetFieldInstruction(OllirElements.getThis(symbolTable.getClassName()), field,
+                        OllirElements.getType(type))));
+
+        return new OllirFragment(instructions, variable);
+    }
+
+    private OllirFragment arrayOrIndexVisit(JmmNode jmmNode, Integer integer) {
+        List<Instruction> instructions = new ArrayList<>();
+
+        JmmNode identifier = jmmNode.getJmmChild(0);
+        JmmNode expression = jmmNode.getJmmChild(1);
+
+        OllirFragment identifierFragment = visit(identifier);
+        OllirFragment expressionFragment = visit(expression);
+
+        instructions.addAll(identifierFragment.getInstructions());
+        instructions.addAll(expressionFragment.getInstructions());
+
+        Operand array = (Operand) identifierFragment.getElement();
+        String type = OllirElements.getTypeCode(array);
+        if (type.startsWith("array.")) {
+            type = type.substring("array.".length());
+        }
+
+        ArrayList<Element> indexes = new ArrayList<>();
+        if (expression.getKind().equals("Identifier")) {
+            indexes.add(expressionFragment.getElement());
+        }
+        else {
+            Operand tempVar = OllirElements.getOperand(context.getNewVariableName(), type);
+            instructions.add(new AssignInstruction(tempVar, OllirElements.getType(type),
+                    new SingleOpInstruction(expressionFragment.getElement())));
+            indexes.add(tempVar);
+        }
+
+        ArrayOperand variable = new ArrayOperand(array.getName(), OllirElements.getType(type), indexes);
+        if (array.isParameter()) {
+            variable.setParamId(array.getParamId());
+        }
+
+        return new OllirFragment(instructions, variable);
+    }
+
+    private OllirFragment newExpVisit(JmmNode jmmNode, Integer integer) {
+        List<Instruction> instructions = new ArrayList<>();
+
+        OllirFragment child = visit(jmmNode.getJmmChild(0));
+        instructions.addAll(child.getInstructions());
+        String name = OllirUtils.getVariableName(jmmNode, context);
+
+        Operand variable;
+        switch (jmmNode.get("type")) {
+            case "intArray":
+                variable = OllirElements.getOperand(name, "array.i32");
+                ArrayList<Element> sizes = new ArrayList<>();
+                sizes.add(child.getElement());
+                instructions.add(new AssignInstruction(variable, OllirElements.getType("array.i32"),
+                        new CallInstruction(CallType.NEW, OllirElements.getOperand("array", "array.i32"), sizes,
+                                OllirElements.getType("array.i32"))));
+                break;
+            case "object":
+                String type = jmmNode.getJmmChild(0).get("name");
+                variable = OllirElements.getOperand(name, type);
+                instructions.add(new AssignInstruction(variable, OllirElements.getType(type),
+                        new CallInstruction(CallType.NEW, OllirElements.getOperand(type, type), new ArrayList<>(),
+                                OllirElements.getType(type))));
+                instructions.add(new CallInstruction(CallType.invokespecial, OllirElements.getOperand(name, type),
+                        OllirElements.getMethodName("<init>"), new ArrayList<>(), OllirElements.getType("V")));
+                break;
+            default:
+                throw new RuntimeException("Unsupported new expression of type '" + jmmNode.get("type") + "'");
+        }
+
+        return new OllirFragment(instructions, variable);
+    }
+
+    private OllirFragment callExpressionVisit(JmmNode jmmNode, Integer integer) {
+        List<Instruction> instructions = new ArrayList<>();
+
+        JmmNode variableId = jmmNode.getJmmChild(0);
+        JmmNode functionId = jmmNode.getJmmChild(1);
+        JmmNode arguments = jmmNode.getJmmChild(2);
+
+        String functionName = functionId.get("name");
+
+        ArrayList<Element> argumentsList = new ArrayList<>();
+        for (var argument : arguments.getChildrenView()) {
+            OllirFragment childFragment = visit(argument);
+            instructions.addAll(childFragment.getInstructions());
+
+            if(argument.getKind().equals("Array")){
+                String type = OllirElements.getTypeCode(childFragment.getElement());
+                Operand newVar = OllirElements.getOperand(context.getNewVariableName(), type);
+                instructions.add(new AssignInstruction(newVar, OllirElements.getType(type),
+                        new SingleOpInstruction(childFragment.getElement())));
+                argumentsList.add(newVar);
+            }
+            else{
+                argumentsList.add(childFragment.getElement());
+            }
+        }
+
+        Element firstArg;
+        CallType callType = CallType.invokevirtual;
+        String retType;
+        // Calls to methods of the class always store the result, even when void
+        boolean classMethod = false;
+        switch (variableId.getKind()) {
+            case "ThisT":
+                firstArg = OllirElements.getThis(symbolTable.getClassName());
+                if (symbolTable.getMethods().contains(functionName)) {
+                    classMethod = true;
+                    retType = OllirUtils.getCode(symbolTable.getReturnType(functionName));
+                } else {
+                    retType = OllirUtils.getTypeFromUnknown(jmmNode, symbolTable);
+                }
+                break;
+            default:
+                if (variableId.getOptional("name").isPresent()) {
+                    String name = variableId.get("name");
+                    if (symbolTable.getImports().contains(name)) {
+                        callType = CallType.invokestatic;
+                        firstArg = new Operand(name, new ClassType(ElementType.CLASS, symbolTable.getClassName()));
+                        retType = OllirUtils.getTypeFromUnknown(jmmNode, symbolTable);
+                    } else {
+                        firstArg = OllirElements.getOperand(OllirUtils.getIdentifierCode(variableId, symbolTable));
+                        if (symbolTable.getMethods().contains(functionName)) {
+                            classMethod = true;
+                            retType = OllirUtils.getCode(symbolTable.getReturnType(functionName));
+                        } else {
+                            retType = OllirUtils.getTypeFromUnknown(jmmNode, symbolTable);
+                        }
+                    }
+                } else {
+                    OllirFragment fragment = visit(variableId);
+                    instructions.addAll(fragment.getInstructions());
+                    firstArg = fragment.getElement();
+                    retType = OllirUtils.getTypeFromUnknown(jmmNode, symbolTable);
+                }
+                break;
+        }
+
+        CallInstruction call = new CallInstruction(callType, firstArg, OllirElements.getMethodName(functionName),
+                argumentsList, OllirElements.getType(retType));
+
+        Operand variable = null;
+        if (!classMethod && retType.equals("V")) {
+            instructions.add(call);
+        } else {
+            variable = OllirElements.getOperand(OllirUtils.getVariableName(jmmNode, context), retType);
+            instructions.add(new AssignInstruction(variable, OllirElements.getType(retType), call));
+        }
+
+        return new OllirFragment(instructions, variable);
+    }
+}
@@ -0,0 +1,24 @@
+package pt.up.fe.comp.ollir;
+
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Instruction;
+
+import java.util.List;
+
+public class OllirFragment {
+    private final List<Instruction> instructions;
+    private final Element element;
+
+    public OllirFragment(List<Instruction> instructions, Element element){
+        this.instructions = instructions;
+        this.element = element;
+    }
+
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    public Element getElement() {
+        return element;
+    }
+}
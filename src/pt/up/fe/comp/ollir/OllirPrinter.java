@@ -0,0 +1,225 @@
+package pt.up.fe.comp.ollir;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.CondBranchInstruction;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.ElementType;
+import org.specs.comp.ollir.Field;
+import org.specs.comp.ollir.GetFieldInstruction;
+import org.specs.comp.ollir.GotoInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.PutFieldInstruction;
+import org.specs.comp.ollir.ReturnInstruction;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.UnaryOpInstruction;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the OLLIR text of a {@link ClassUnit} built by {@link OllirClassBuilder}. The text parses back into the same
+ * class, so it is both the readable form of the code and the input of the "ollirFromText" path.
+ */
+public class OllirPrinter {
+    private final StringBuilder code;
+
+    public OllirPrinter() {
+        this.code = new StringBuilder();
+    }
+
+    /**
+     * @param classUnit
+     * @return The OLLIR code of the class
+     */
+    public String print(ClassUnit classUnit) {
+        code.setLength(0);
+
+        for (String importString : classUnit.getImports()) {
+            code.append("import ").append(importString).append(";\n");
+        }
+
+        code.append("public ").append(classUnit.getClassName());
+        if (classUnit.getSuperClass() != null) {
+            code.append(" extends ").append(classUnit.getSuperClass());
+        }
+        code.append(" {\n");
+
+        for (Field field : classUnit.getFields()) {
+            code.append("\t.field private ").append(field.getFieldName()).append(".")
+                    .append(OllirElements.getTypeCode(field.getFieldType())).append(";\n");
+        }
+
+        for (Method method : classUnit.getMethods()) {
+            printMethod(method);
+        }
+
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private void printMethod(Method method) {
+        if (method.isConstructMethod()) {
+            code.append("\t.construct ").append(method.getOllirClass().getClassName());
+        } else {
+            code.append("\t.method public ");
+            if (method.isStaticMethod()) {
+                code.append("static ");
+            }
+            code.append(method.getMethodName());
+        }
+
+        String params = method.getParams().stream()
+                .map(param -> ((Operand) param).getName() + "." + OllirElements.getTypeCode(param))
+                .collect(Collectors.joining(", "));
+        code.append("(").append(params).append(").").append(OllirElements.getTypeCode(method.getReturnType()))
+                .append(" {\n");
+
+        for (Instruction instruction : method.getInstructions()) {
+            for (String label : method.getLabels(instruction)) {
+                code.append("\t").append(label).append(":\n");
+            }
+            code.append("\t\t").append(getCode(instruction)).append(";\n");
+        }
+
+        code.append("\t}\n");
+    }
+
+    private String getCode(Instruction instruction) {
+        switch (instruction.getInstType()) {
+            case ASSIGN:
+                AssignInstruction assign = (AssignInstruction) instruction;
+                return getCode(assign.getDest()) + " :=." + OllirElements.getTypeCode(assign.getTypeOfAssign()) + " "
+                        + getCode(assign.getRhs());
+            case CALL:
+                return getCallCode((CallInstruction) instruction);
+            case GOTO:
+                return "goto " + ((GotoInstruction) instruction).getLabel();
+            case BRANCH:
+                CondBranchInstruction branch = (CondBranchInstruction) instruction;
+                return "if (" + getCode(branch.getCondition()) + ") goto " + branch.getLabel();
+            case RETURN:
+                ReturnInstruction ret = (ReturnInstruction) instruction;
+                String retCode = "ret." + OllirElements.getTypeCode(ret.getReturnType());
+                return ret.hasReturnValue() ? retCode + " " + getCode(ret.getOperand()) : retCode;
+            case PUTFIELD:
+                PutFieldInstruction putField = (PutFieldInstruction) instruction;
+                return "putfield(" + getCode(putField.getFirstOperand()) + ", " + getCode(putField.getSecondOperand())
+                        + ", " + getCode(putField.getThirdOperand()) + ").V";
+            case GETFIELD:
+                GetFieldInstruction getField = (GetFieldInstruction) instruction;
+                return "getfield(" + getCode(getField.getFirstOperand()) + ", " + getCode(getField.getSecondOperand())
+                        + ")." + OllirElements.getTypeCode(getField.getFieldType());
+            case UNARYOPER:
+                UnaryOpInstruction unaryOp = (UnaryOpInstruction) instruction;
+                return getCode(unaryOp.getOperation()) + " " + getCode(unaryOp.getOperand());
+            case BINARYOPER:
+                BinaryOpInstruction binaryOp = (BinaryOpInstruction) instruction;
+                return getCode(binaryOp.getLeftOperand()) + " " + getCode(binaryOp.getOperation()) + " "
+                        + getCode(binaryOp.getRightOperand());
+            case NOPER:
+                return getCode(((SingleOpInstruction) instruction).getSingleOperand());
+            default:
+                throw new RuntimeException("Unsupported OLLIR instruction '" + instruction.getInstType() + "'");
+        }
+    }
+
+    private String getCallCode(CallInstruction call) {
+        String returnType = "." + OllirElements.getTypeCode(call.getReturnType());
+        List<Element> operands = call.getListOfOperands();
+
+        switch (call.getInvocationType()) {
+            case NEW:
+                // The first argument is the class, or "array" for arrays
+                StringBuilder newCode = new StringBuilder("new(").append(((Operand) call.getFirstArg()).getName());
+                if (operands != null) {
+                    for (Element operand : operands) {
+                        newCode.append(", ").append(getCode(operand));
+                    }
+                }
+                return newCode.append(")").append(returnType).toString();
+            case arraylength:
+                return "arraylength(" + getCode(call.getFirstArg()) + ")" + returnType;
+            default:
+                StringBuilder callCode = new StringBuilder(call.getInvocationType().name()).append("(")
+                        .append(getCode(call.getFirstArg())).append(", ")
+                        .append(((LiteralElement) call.getSecondArg()).getLiteral());
+                if (operands != null) {
+                    for (Element operand : operands) {
+                        callCode.append(", ").append(getCode(operand));
+                    }
+                }
+                return callCode.append(")").append(returnType).toString();
+        }
+    }
+
+    private static String getCode(Operation operation) {
+        String symbol;
+        switch (operation.getOpType()) {
+            case ADD:
+                symbol = "+";
+                break;
+            case SUB:
+                symbol = "-";
+                break;
+            case MUL:
+                symbol = "*";
+                break;
+            case DIV:
+                symbol = "/";
+                break;
+            case LTH:
+                symbol = "<";
+                break;
+            case GTE:
+                symbol = ">=";
+                break;
+            case ANDB:
+                symbol = "&&";
+                break;
+            case ORB:
+                symbol = "||";
+                break;
+            case NOTB:
+                symbol = "!";
+                break;
+            default:
+                throw new RuntimeException("Unsupported OLLIR operation '" + operation.getOpType() + "'");
+        }
+        return symbol + "." + OllirElements.getTypeCode(operation.getTypeInfo());
+    }
+
+    private static String getCode(Element element) {
+        if (element.isLiteral()) {
+            return ((LiteralElement) element).getLiteral() + "." + OllirElements.getTypeCode(element);
+        }
+
+        Operand operand = (Operand) element;
+        ElementType elementType = operand.getType().getTypeOfElement();
+        // 'this' and the classes of static calls are written without type
+        if (elementType == ElementType.THIS || elementType == ElementType.CLASS) {
+            return operand.getName();
+        }
+
+        StringBuilder operandCode = new StringBuilder();
+        if (operand.isParameter()) {
+            operandCode.append("$").append(operand.getParamId()).append(".");
+        }
+        operandCode.append(operand.getName());
+        if (operand instanceof ArrayOperand) {
+            String indexes = ((ArrayOperand) operand).getIndexOperands().stream()
+                    .map(OllirPrinter::getCode)
+                    .collect(Collectors.joining(", "));
+            operandCode.append("[").append(indexes).append("]");
+        }
+        return operandCode.append(".").append(OllirElements.getTypeCode(operand)).toString();
+    }
+}
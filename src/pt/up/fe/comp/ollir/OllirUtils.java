@@ -1,16 +1,13 @@
 package pt.up.fe.comp.ollir;
 
 import pt.up.fe.comp.Array;
+import pt.up.fe.comp.MethodScope;
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class OllirUtils {
-    private static int localVariableCount = 0;
     public static String getCode(Symbol symbol){
         return symbol.getName() + "." + getCode(symbol.getType());
     }
@@ -44,26 +41,21 @@ public class OllirUtils {
      * @return Method signature
      */
     public static String getParentMethodSignature(JmmNode jmmNode){
-        while (true){
-            if(jmmNode.getKind().equals("InstanceMethod")){
-                return jmmNode.getJmmChild(1).get("name");
-            }
-            else if(jmmNode.getKind().equals("MainMethod")){
-                return "main";
-            }
-            else{
-                jmmNode = jmmNode.getJmmParent();
-                if(jmmNode == null) return null;
-            }
+        JmmNode method = jmmNode.getEnclosingMethod();
+        if(method == null) return null;
+        if(method.getKind().equals("InstanceMethod")){
+            return method.getJmmChild(1).get("name");
         }
+        return "main";
     }
 
     /**
      * Gets a needed variable name for assignment
      * @param jmmNode
+     * @param context
      * @return Variable name
      */
-    public static String getVariableName(JmmNode jmmNode){
+    public static String getVariableName(JmmNode jmmNode, OllirContext context){
         switch (jmmNode.getJmmParent().getKind()) {
             case "AssignmentStatement":
                 switch (jmmNode.getJmmParent().getJmmChild(0).getKind()) {
@@ -71,17 +63,10 @@ public class OllirUtils {
                         return jmmNode.getJmmParent().getJmmChild(0).get("name");
                 }
             default:
-                return getNewVariableName();
+                return context.getNewVariableName();
         }
     }
 
-    /**
-     * @return New temporary variable
-     */
-    public static String getNewVariableName(){
-        return "t" + localVariableCount++;
-    }
-
     /**
      * @param identifier
      * @param symbolTable
@@ -89,27 +74,15 @@ public class OllirUtils {
      */
     public static String getIdentifierCode(JmmNode identifier, SymbolTable symbolTable){
         String methodSignature = OllirUtils.getParentMethodSignature(identifier);
-        if(methodSignature != null){
-            for(var variable : symbolTable.getLocalVariables(methodSignature)) {
-                if(variable.getName().equals(identifier.get("name"))){
-                    return OllirUtils.getCode(variable);
-                }
-            }
-            for(var variable : symbolTable.getParameters(methodSignature)) {
-                if(variable.getName().equals(identifier.get("name"))){
-                    return OllirUtils.getCode(variable);
-                }
-            }
+        var variable = MethodScope.get(symbolTable, methodSignature).resolve(identifier.get("name"));
+        if(variable == null){
+            return "V";
         }
 
-        for(var variable : symbolTable.getFields()){
-            if(variable.getName().equals(identifier.get("name"))){
-                identifier.put("field", "true");
-                return OllirUtils.getCode(variable);
-            }
+        if(variable.isField()){
+            identifier.putBoolean("field", true);
         }
-
-        return "V";
+        return OllirUtils.getCode(variable.getSymbol());
     }
 
     /**
@@ -129,22 +102,7 @@ public class OllirUtils {
     }
 
     /**
-     * Gets the two variable names of an expression
-     * @param expression
-     * @return List with the two variable names as strings
-     */
-    public static List<String> getVarNamesFromExpression(String expression){
-        List<String> list = new ArrayList<>();
-
-        String[] parts = expression.split(" ");
-        list.add(parts[2]);
-        list.add(parts[4].replaceFirst(";", ""));
-
-        return list;
-    }
-
-    /**
-     * Gets the type for a needed expression
+     * Gets the type for a needed expression, from the types stored by semantic analysis when there are some
      * @param jmmNode Node that belongs to the expression
      * @param symbolTable
      * @return Type needed
@@ -156,8 +114,16 @@ public class OllirUtils {
             case "AssignmentStatement":
                 switch (parent.getJmmChild(0).getKind()){
                     case "Identifier":
+                        var variableType = parent.getJmmChild(0).getExpressionType();
+                        if(variableType != null){
+                            return OllirUtils.getCode(variableType);
+                        }
                         return OllirUtils.getTypeFromVariableName(OllirUtils.getIdentifierCode(parent.getJmmChild(0), symbolTable));
                     case "Index":
+                        var arrayType = parent.getJmmChild(0).getJmmChild(0).getExpressionType();
+                        if(arrayType != null){
+                            return OllirUtils.getOllirType(arrayType.getName());
+                        }
                         return OllirUtils.getTypeFromVariableName(OllirUtils.
                                 getIdentifierCode(parent.getJmmChild(0).getJmmChild(0), symbolTable)).
                                 toString().split("[.]")[1];
@@ -174,28 +140,12 @@ public class OllirUtils {
             case "UnaryOp":
                 return "bool";
             case "Identifier":
+                if(parent.getExpressionType() != null){
+                    return OllirUtils.getCode(parent.getExpressionType());
+                }
                 return OllirUtils.getTypeFromVariableName(OllirUtils.getIdentifierCode(parent, symbolTable));
             default:
                 return "V";
         }
     }
-
-    /**
-     * Gets the code for retrieval of a class field variable
-     * @param field
-     * @param indentCounter
-     * @return OllirCode with getfield code in the 'beforeCode' and variable where it's stored in the 'variable'
-     */
-    public static OllirCode getField(String field, int indentCounter){
-        StringBuilder beforeCode = new StringBuilder();
-        StringBuilder variable = new StringBuilder();
-
-        String type = OllirUtils.getTypeFromVariableName(field);
-
-        variable.append(OllirUtils.getNewVariableName()).append(".").append(type);
-        beforeCode.append("\t".repeat(indentCounter)).append(variable).append(" :=.").append(type).
-                append(" getfield(this, ").append(field).append(").").append(type).append(";\n");
-
-        return new OllirCode(beforeCode, variable);
-    }
 }
@@ -0,0 +1,44 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+public class BatchCompilerTest {
+
+    @Test
+    public void continuesPastFailures() {
+        File outputDir = SpecsIo.mkdir(SpecsIo.getTempFolder("jmm-batch-test"), "classes");
+        SpecsIo.deleteFolderContents(outputDir);
+
+        List<File> inputFiles = BatchCompiler.getInputFiles(Arrays.asList(
+                "test/fixtures/public/HelloWorld.jmm",
+                "test/fixtures/public/cp2/ArrayAccessOnInt.jmm",
+                "test/fixtures/public/FindMaximum.jmm"));
+
+        var output = new ByteArrayOutputStream();
+        var batchCompiler = new BatchCompiler(new HashMap<>(), outputDir, 2, new PrintStream(output, true));
+        List<CompilationResult> results = batchCompiler.compile(inputFiles);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        TestUtils.mustFail(results.get(1).getReports());
+        assertTrue(results.get(2).isSuccess());
+
+        assertTrue(new File(outputDir, "HelloWorld.class").isFile());
+        assertTrue(new File(outputDir, "FindMaximum.class").isFile());
+        assertTrue(output.toString().contains("[FAILED] " + inputFiles.get(1)));
+    }
+}
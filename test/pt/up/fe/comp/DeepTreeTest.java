@@ -0,0 +1,100 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.PostorderJmmVisitor;
+import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+
+public class DeepTreeTest {
+
+    private static final int DEPTH = 100_000;
+
+    /**
+     * A chain of DEPTH nodes, each with a leaf before the next node of the chain.
+     */
+    private static JmmNode newChain() {
+        JmmNode root = new JmmNodeImpl("Chain");
+        JmmNode current = root;
+        for (int i = 0; i < DEPTH; i++) {
+            current.add(new JmmNodeImpl("Leaf"));
+            JmmNode next = new JmmNodeImpl("Chain");
+            current.add(next);
+            current = next;
+        }
+        return root;
+    }
+
+    @Test
+    public void preorder() {
+        StringBuilder order = new StringBuilder();
+        var visitor = new PreorderJmmVisitor<Object, Integer>();
+        visitor.setDefaultVisit((node, data) -> {
+            if (order.length() < 6) {
+                order.append(node.getKind().charAt(0));
+            }
+            return 1;
+        });
+        visitor.setReduceSimple(Integer::sum);
+
+        assertEquals(2 * DEPTH + 1, (int) visitor.visit(newChain()));
+        assertEquals("CLCLCL", order.toString());
+    }
+
+    @Test
+    public void postorder() {
+        StringBuilder order = new StringBuilder();
+        var visitor = new PostorderJmmVisitor<Object, Integer>();
+        visitor.setDefaultVisit((node, data) -> {
+            if (order.length() < 3) {
+                order.append(node.getKind().charAt(0));
+            }
+            return 1;
+        });
+        visitor.setReduceSimple(Integer::sum);
+
+        assertEquals(2 * DEPTH + 1, (int) visitor.visit(newChain()));
+        // The leaf of the first node is visited first, then the deepest node
+        assertEquals("LLL", order.toString().substring(0, 3));
+
+        var noReduce = new PostorderJmmVisitor<Object, String>();
+        noReduce.setDefaultVisit((node, data) -> node.getKind());
+        assertEquals("Chain", noReduce.visit(newChain()));
+    }
+
+    @Test
+    public void longExpression() {
+        int terms = 5000;
+        StringBuilder expression = new StringBuilder("x");
+        int expected = 2;
+        for (int i = 0; i < terms; i++) {
+            boolean add = i % 3 != 0;
+            expression.append(add ? " + " : " - ").append(i % 7);
+            expected = add ? expected + i % 7 : expected - i % 7;
+        }
+
+        String code = "import io;\nclass Deep {\n\tpublic static void main(String[] args) {\n\t\tint x;\n\t\tint y;\n"
+                + "\t\tx = 2;\n\t\ty = " + expression + ";\n\t\tio.println(y);\n\t}\n}\n";
+
+        for (String fromText : new String[] { "false", "true" }) {
+            Map<String, String> config = new HashMap<>();
+            config.put("ollirFromText", fromText);
+            config.put(JmmCompiler.KEEP_INTERMEDIATE, "true");
+
+            CompilationResult result = new JmmCompiler().compile(code, config);
+            assertTrue(result.getReports().toString(), result.isSuccess());
+
+            String output = new JasminResult(result.getJasminCode()).run(List.of(), List.of("libs-jmm/compiled"));
+            assertEquals(Integer.toString(expected), output.trim());
+        }
+    }
+}
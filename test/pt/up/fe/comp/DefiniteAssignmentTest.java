@@ -0,0 +1,44 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DefiniteAssignmentTest {
+
+    /**
+     * @return the number of "not initialized" errors in a main method with the given statements and locals a, b and c
+     */
+    private static long countErrors(String statements) {
+        String code = "class A {\n\tpublic static void main(String[] args) {\n\t\tint a;\n\t\tint b;\n\t\tint c;\n"
+                + statements + "\n\t}\n}\n";
+
+        return TestUtils.analyse(code).getReports().stream()
+                .filter(report -> report.getMessage().equals("Variable not initialized"))
+                .count();
+    }
+
+    @Test
+    public void sequence() {
+        assertEquals(0, countErrors("a = 1; b = a + 2; c = b;"));
+        assertEquals(1, countErrors("b = a; a = 1;"));
+        assertEquals(1, countErrors("a = a + 1;"));
+    }
+
+    @Test
+    public void branches() {
+        assertEquals(0, countErrors("if (true) { a = 1; } else { a = 2; } b = a;"));
+        // Assigned on a previous line, but not in every branch
+        assertEquals(1, countErrors("if (true) {\n a = 1;\n } else {\n }\n b = a;"));
+        assertEquals(0, countErrors("if (true) { a = 1; b = a; } else { b = 2; }"));
+    }
+
+    @Test
+    public void loops() {
+        assertEquals(0, countErrors("a = 0; while (a < 10) { b = a; a = b + 1; } c = a;"));
+        // The body may not run
+        assertEquals(1, countErrors("a = 0; while (a < 10) {\n b = 1;\n a = a + 1;\n }\n c = b;"));
+        // Assigned later in the body, not before the first iteration
+        assertEquals(1, countErrors("a = 0; while (a < 10) { c = b; b = 1; a = a + 1; }"));
+    }
+}
@@ -0,0 +1,90 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.MethodScope.SymbolKind;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+public class FrozenSymbolTableTest {
+
+    private static Symbol newSymbol(String type, String name) {
+        return new Symbol(new Type(type, false), name);
+    }
+
+    @Test
+    public void sameAsBuilder() {
+        String code = new JmmProgramGenerator().setNumMethods(20).setNumFields(5).generate(7);
+        var root = new SimpleParser().parse(code, Collections.emptyMap()).getRootNode();
+
+        var builder = new SymbolTableBuilder();
+        new SymbolTableFiller().visit(root, builder);
+        var frozen = builder.freeze();
+
+        assertEquals(builder.print(), frozen.print());
+        for (String method : builder.getMethods()) {
+            assertTrue(frozen.getMethods().contains(method));
+            assertEquals(builder.getMethods().indexOf(method), frozen.getMethods().indexOf(method));
+        }
+    }
+
+    @Test
+    public void indices() {
+        var builder = new SymbolTableBuilder();
+        builder.addImport("io");
+        builder.addImport("a.b.C");
+        builder.addField(newSymbol("int", "x"));
+        builder.addMethod("foo");
+        builder.addMethodParam("foo", newSymbol("boolean", "x"));
+        var table = builder.freeze();
+
+        assertTrue(table.getImports().contains("a.b.C"));
+        assertFalse(table.getImports().contains("C"));
+        assertEquals(1, table.getImports().indexOf("a.b.C"));
+
+        var scope = MethodScope.get(table, "foo");
+        assertSame(scope, MethodScope.get(table, "foo"));
+        assertEquals(SymbolKind.PARAMETER, scope.resolve("x").getKind());
+        assertEquals(1, scope.getParameterNumber("x"));
+
+        // Unknown methods only see the fields
+        assertSame(MethodScope.get(table, null), MethodScope.get(table, "bar"));
+        assertNull(table.getParameters("bar"));
+    }
+
+    @Test
+    public void immutable() {
+        var builder = new SymbolTableBuilder();
+        builder.addMethod("foo");
+        var table = builder.freeze();
+
+        builder.addMethod("bar");
+        builder.addField(newSymbol("int", "x"));
+        builder.addMethodField("foo", newSymbol("int", "y"));
+
+        assertEquals(1, table.getMethods().size());
+        assertTrue(table.getFields().isEmpty());
+        assertTrue(table.getLocalVariables("foo").isEmpty());
+        assertNull(MethodScope.get(table, "foo").resolve("y"));
+
+        try {
+            table.getMethods().add("baz");
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            table.getLocalVariables("foo").add(newSymbol("int", "z"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.FusedJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.JmmPass;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class FusedVisitorTest {
+
+    /**
+     * A(B(C), D)
+     */
+    private static JmmNode newTree() {
+        JmmNode a = new JmmNodeImpl("A");
+        JmmNode b = new JmmNodeImpl("B");
+        b.add(new JmmNodeImpl("C"));
+        a.add(b);
+        a.add(new JmmNodeImpl("D"));
+        return a;
+    }
+
+    private static class TracePass extends JmmPass {
+
+        private TracePass(String name, StringBuilder trace) {
+            this(name, trace, null, null);
+        }
+
+        private TracePass(String name, StringBuilder trace, String skipKind, String stopKind) {
+            setDefaultPreVisit(node -> {
+                trace.append(name).append("+").append(node.getKind()).append(" ");
+
+                if (node.getKind().equals(skipKind)) {
+                    skipChildren();
+                }
+                if (node.getKind().equals(stopKind)) {
+                    stop();
+                }
+            });
+            setDefaultPostVisit(node -> trace.append(name).append("-").append(node.getKind()).append(" "));
+        }
+    }
+
+    @Test
+    public void order() {
+        StringBuilder trace = new StringBuilder();
+        var first = new TracePass("1", trace);
+        var second = new TracePass("2", trace);
+
+        // Added in the wrong order
+        second.runAfter(first);
+        new FusedJmmVisitor().addPass(second).addPass(first).visit(newTree());
+
+        assertEquals("1+A 2+A 1+B 2+B 1+C 2+C 1-C 2-C 1-B 2-B 1+D 2+D 1-D 2-D 1-A 2-A ", trace.toString());
+    }
+
+    @Test
+    public void skipAndStop() {
+        StringBuilder trace = new StringBuilder();
+
+        var skip = new TracePass("s", trace, "B", null);
+        var stop = new TracePass("t", trace, null, "C");
+
+        new FusedJmmVisitor().addPass(skip).addPass(stop).visit(newTree());
+
+        assertEquals("s+A t+A s+B t+B t+C s-B s+D s-D s-A ", trace.toString());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void cycle() {
+        var first = new JmmPass();
+        var second = new JmmPass();
+        first.runAfter(second);
+        second.runAfter(first);
+
+        new FusedJmmVisitor().addPass(first).addPass(second).visit(newTree());
+    }
+
+    @Test
+    public void lineAndColumn() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+
+        var classDeclaration = root.getJmmChild(root.getNumChildren() - 1);
+        assertEquals(2, classDeclaration.getInt("line"));
+        assertEquals(1, classDeclaration.getInt("col"));
+    }
+}
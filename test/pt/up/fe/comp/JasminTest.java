@@ -1,5 +1,9 @@
 package pt.up.fe.comp;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 import org.junit.Test;
 import org.specs.comp.ollir.CallType;
 import pt.up.fe.comp.jasmin.JasminEmitter;
@@ -8,7 +12,11 @@ import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.specs.util.SpecsIo;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Scanner;
 
 public class JasminTest {
@@ -21,6 +29,39 @@ public class JasminTest {
         jasminResult.run();
     }
 
+    @Test
+    public void assembleInMemory() {
+        JasminResult jasminResult = TestUtils.backend(SpecsIo.getResource("fixtures/public/HelloWorld.jmm"));
+        TestUtils.noErrors(jasminResult.getReports());
+
+        byte[] classBytes = jasminResult.assemble();
+        File classFile = jasminResult.compile(SpecsIo.getTempFolder("jasmin-test"));
+
+        assertArrayEquals(SpecsIo.readAsBytes(classFile), classBytes);
+    }
+
+    @Test
+    public void runInProcess() {
+        JasminResult jasminResult = TestUtils.backend(SpecsIo.getResource("fixtures/public/WhileAndIf.jmm"));
+        TestUtils.noErrors(jasminResult.getReports());
+
+        var config = new HashMap<String, String>();
+        config.put(JasminResult.RUN_IN_PROCESS, "true");
+        var inProcessResult = new JasminResult(jasminResult.getClassName(), jasminResult.getJasminCode(),
+                Collections.emptyList(), config);
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        InputStream in = System.in;
+
+        assertEquals(jasminResult.run(), inProcessResult.run());
+
+        // The redirection of the standard streams ends with the run
+        assertSame(out, System.out);
+        assertSame(err, System.err);
+        assertSame(in, System.in);
+    }
+
     @Test
     public void runCode() {
         System.out.println(CallType.invokespecial);
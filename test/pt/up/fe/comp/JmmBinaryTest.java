@@ -0,0 +1,120 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.JmmBinary;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class JmmBinaryTest {
+
+    @Test
+    public void sameAsJson() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+
+        var copy = JmmNode.fromBinary(root.toBinary());
+        assertEquals(root.toJson(), copy.toJson());
+    }
+
+    @Test
+    public void streams() {
+        String code = new JmmProgramGenerator().setNumMethods(100).generate(1);
+        var root = new SimpleParser().parse(code, Collections.emptyMap()).getRootNode();
+
+        var output = new ByteArrayOutputStream();
+        JmmBinary.write(root, Channels.newChannel(output));
+        // Larger than the buffer, and much smaller than the JSON
+        assertTrue(output.size() > 1 << 16);
+        assertTrue(output.size() * 10 < root.toJson().length());
+
+        var copy = JmmBinary.read(Channels.newChannel(new ByteArrayInputStream(output.toByteArray())));
+        assertEquals(root.toJson(), copy.toJson());
+    }
+
+    @Test
+    public void dataAfterTree() throws IOException {
+        String code = new JmmProgramGenerator().setNumMethods(100).generate(2);
+        var large = new SimpleParser().parse(code, Collections.emptyMap()).getRootNode();
+        var small = new JmmNodeImpl("Program");
+
+        var output = new ByteArrayOutputStream();
+        var outputChannel = Channels.newChannel(output);
+        JmmBinary.write(large, outputChannel);
+        JmmBinary.write(small, outputChannel);
+        output.write(42);
+
+        // Each read stops at the end of its tree
+        var input = new ByteArrayInputStream(output.toByteArray());
+        var inputChannel = Channels.newChannel(input);
+        assertEquals(large.toJson(), JmmBinary.read(inputChannel).toJson());
+        assertEquals(small.toJson(), JmmBinary.read(inputChannel).toJson());
+        assertEquals(42, input.read());
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    public void deepTree() {
+        int depth = 100_000;
+        JmmNode root = new JmmNodeImpl("Chain");
+        JmmNode current = root;
+        for (int i = 0; i < depth; i++) {
+            JmmNode next = new JmmNodeImpl("Chain");
+            next.put("value", "é" + i);
+            current.add(next);
+            current = next;
+        }
+
+        JmmNode copy = JmmNode.fromBinary(root.toBinary());
+        for (int i = 0; i < depth; i++) {
+            copy = copy.getJmmChild(0);
+            assertEquals("é" + i, copy.get("value"));
+        }
+        assertEquals(0, copy.getNumChildren());
+    }
+
+    @Test
+    public void invalidStrings() {
+        byte[] header = { 'J', 'M', 'M', 'B', 2 };
+        // A chunk with the kind of the root: a reference above 2^31, then a new string of 2^31 - 1 bytes
+        byte[][] chunks = { { 5, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0 },
+                { 6, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0 } };
+
+        for (byte[] chunk : chunks) {
+            byte[] bytes = Arrays.copyOf(header, header.length + chunk.length);
+            System.arraycopy(chunk, 0, bytes, header.length, chunk.length);
+            try {
+                JmmBinary.fromBytes(bytes);
+                fail("Read a tree with an invalid string");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid string"));
+            }
+        }
+    }
+
+    @Test
+    public void truncated() {
+        byte[] bytes = new JmmNodeImpl("Program").toBinary();
+
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                JmmBinary.fromBytes(Arrays.copyOf(bytes, length));
+                fail("Read a tree from " + length + " bytes");
+            } catch (RuntimeException e) {
+                // Expected
+            }
+        }
+    }
+}
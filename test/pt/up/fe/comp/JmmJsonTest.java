@@ -0,0 +1,72 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.JmmJsonAdapter;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class JmmJsonTest {
+
+    @Test
+    public void writer() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+
+        var json = new StringWriter();
+        root.toJson(json);
+        assertEquals(root.toJson(), json.toString());
+        assertEquals(root.toJson(), JmmNode.fromJson(new StringReader(json.toString())).toJson());
+
+        var tree = new StringWriter();
+        root.toTree(tree);
+        assertEquals(root.toTree(), tree.toString());
+    }
+
+    @Test
+    public void anyPropertyOrder() {
+        var node = JmmNode.fromJson("{\"children\": [{\"attributes\": {\"name\": \"x\"}, \"kind\": \"Identifier\", "
+                + "\"children\": []}], \"kind\": \"Return\"}");
+
+        assertEquals("Return\n   Identifier (name: x)\n", node.toTree());
+    }
+
+    private static JmmNode newChain(int depth) {
+        JmmNode root = new JmmNodeImpl("Chain");
+        JmmNode current = root;
+        for (int i = 0; i < depth; i++) {
+            JmmNode next = new JmmNodeImpl("Chain");
+            current.add(next);
+            current = next;
+        }
+        return root;
+    }
+
+    @Test
+    public void deepTree() throws IOException {
+        int depth = 100_000;
+
+        // Without indentation, which would make the text quadratic in the depth
+        var adapter = new JmmJsonAdapter();
+        var json = new StringWriter();
+        adapter.toJson(json, newChain(depth));
+
+        JmmNode copy = adapter.fromJson(new StringReader(json.toString()));
+        for (int i = 0; i < depth; i++) {
+            copy = copy.getJmmChild(0);
+        }
+        assertEquals(0, copy.getNumChildren());
+
+        var lines = newChain(1000).toTree().split("\n");
+        assertEquals(1001, lines.length);
+        assertEquals(" ".repeat(3 * 1000) + "Chain", lines[1000]);
+    }
+}
@@ -0,0 +1,81 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+
+public class JmmProgramGeneratorTest {
+
+    private static JmmProgramGenerator newGenerator(long seed) {
+        return new JmmProgramGenerator()
+                .setNumMethods(1 + (int) (seed % 6))
+                .setStatementsPerMethod(4 + (int) (seed % 8))
+                .setExpressionDepth((int) (seed % 5))
+                .setLoopNesting((int) (seed % 4))
+                .setNumFields((int) (seed % 4))
+                .setNumImports(1 + (int) (seed % 3));
+    }
+
+    @Test
+    public void reproducible() {
+        assertEquals(newGenerator(7).generate(7), newGenerator(7).generate(7));
+        assertNotEquals(newGenerator(7).generate(7), newGenerator(7).generate(8));
+    }
+
+    @Test
+    public void compiles() {
+        for (long seed = 0; seed < 40; seed++) {
+            String code = newGenerator(seed).generate(seed);
+
+            Map<String, String> config = new HashMap<>();
+            config.put("optimize", Boolean.toString(seed % 2 == 1));
+            CompilationResult result = new JmmCompiler().compile(code, config);
+
+            assertTrue("seed " + seed + ": " + result.getReports(), result.isSuccess());
+        }
+    }
+
+    @Test
+    public void ollirFromTextMatches() {
+        for (long seed = 0; seed < 10; seed++) {
+            String code = newGenerator(seed).generate(seed);
+
+            OllirResult textResult = TestUtils.optimize(code, Map.of("ollirFromText", "true"));
+            OllirResult builderResult = TestUtils.optimize(code);
+
+            assertEquals("seed " + seed, TestUtils.backend(textResult).getJasminCode(),
+                    TestUtils.backend(builderResult).getJasminCode());
+        }
+    }
+
+    @Test
+    public void optimizedRunMatches() {
+        for (long seed = 0; seed < 5; seed++) {
+            String code = newGenerator(seed).generate(seed);
+
+            String output = run(code, false);
+            assertFalse("seed " + seed, output.isEmpty());
+            assertFalse("seed " + seed + ": " + output, output.contains("Exception"));
+            assertEquals("seed " + seed, output, run(code, true));
+        }
+    }
+
+    private static String run(String code, boolean optimize) {
+        Map<String, String> config = new HashMap<>();
+        config.put("optimize", Boolean.toString(optimize));
+        config.put(JmmCompiler.KEEP_INTERMEDIATE, "true");
+
+        CompilationResult result = new JmmCompiler().compile(code, config);
+        return new JasminResult(result.getJasminCode()).run(List.of(), List.of("libs-jmm/compiled"));
+    }
+}
@@ -0,0 +1,49 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+public class MappedSourceTest {
+
+    private static File newFile(String name, String code) {
+        File file = new File(SpecsIo.getTempFolder("jmm-mapped-test"), name);
+        SpecsIo.write(file, code);
+        return file;
+    }
+
+    @Test
+    public void sameTreeAsString() {
+        File file = new File("test/fixtures/public/Life.jmm");
+        String code = SpecsIo.read(file);
+
+        var fromString = new SimpleParser().parse(code, Collections.emptyMap());
+        var fromFile = new SimpleParser().parse(file.toPath(), Collections.emptyMap());
+
+        assertEquals(fromString.getRootNode().toJson(), fromFile.getRootNode().toJson());
+    }
+
+    @Test
+    public void ascii() {
+        CharSequence source = MappedSource.map(newFile("Ascii.jmm", "class A {\r\n}\n").toPath());
+
+        assertTrue(source instanceof MappedSource);
+        assertEquals("class A {\r\n}\n", source.toString());
+        assertEquals("A {", source.subSequence(6, 9).toString());
+    }
+
+    @Test
+    public void utf8() {
+        String code = "// Código\nclass A {\n}\n";
+        File file = newFile("Utf8.jmm", code);
+
+        assertEquals(code, MappedSource.map(file.toPath()).toString());
+        assertTrue(new SimpleParser().parse(file.toPath(), Collections.emptyMap()).getReports().isEmpty());
+    }
+}
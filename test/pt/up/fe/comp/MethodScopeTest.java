@@ -0,0 +1,54 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.MethodScope.SymbolKind;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+public class MethodScopeTest {
+
+    private static Symbol newSymbol(String type, String name) {
+        return new Symbol(new Type(type, false), name);
+    }
+
+    @Test
+    public void hiding() {
+        var table = new SymbolTableBuilder();
+        table.addField(newSymbol("int", "a"));
+        table.addField(newSymbol("int", "b"));
+        table.addMethod("foo");
+        table.addMethodParam("foo", newSymbol("boolean", "b"));
+        table.addMethodParam("foo", newSymbol("boolean", "c"));
+        table.addMethodField("foo", newSymbol("Foo", "c"));
+
+        var scope = MethodScope.get(table, "foo");
+        assertEquals(SymbolKind.FIELD, scope.resolve("a").getKind());
+        assertEquals(SymbolKind.PARAMETER, scope.resolve("b").getKind());
+        assertEquals("boolean", scope.resolve("b").getSymbol().getType().getName());
+        assertEquals(SymbolKind.LOCAL, scope.resolve("c").getKind());
+        assertNull(scope.resolve("d"));
+
+        assertEquals(1, scope.getParameterNumber("b"));
+        assertEquals(2, scope.getParameterNumber("c"));
+        assertEquals(0, scope.getParameterNumber("a"));
+
+        var classScope = MethodScope.get(table, null);
+        assertEquals(SymbolKind.FIELD, classScope.resolve("b").getKind());
+        assertNull(classScope.resolve("c"));
+    }
+
+    @Test
+    public void rebuiltOnChange() {
+        var table = new SymbolTableBuilder();
+        table.addMethod("foo");
+
+        assertNull(MethodScope.get(table, "foo").resolve("x"));
+
+        table.addMethodField("foo", newSymbol("int", "x"));
+        assertEquals(SymbolKind.LOCAL, MethodScope.get(table, "foo").resolve("x").getKind());
+    }
+}
@@ -0,0 +1,84 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class NodeAttributesTest {
+
+    @Test
+    public void typedAccessors() {
+        JmmNode node = new JmmNodeImpl("Type");
+        node.put("type", "int");
+        node.put("array", "true");
+        node.putInt("line", 3);
+        node.put("col", "7");
+
+        assertEquals("int", node.get("type"));
+        assertTrue(node.getBoolean("array"));
+        assertEquals("true", node.get("array"));
+        assertEquals(3, node.getInt("line"));
+        assertEquals("3", node.get("line"));
+        assertEquals(7, node.getInt("col"));
+        assertEquals(List.of("type", "line", "col", "array"), node.getAttributes());
+
+        node.putBoolean("array", false);
+        assertEquals("false", node.get("array"));
+        assertEquals(Optional.empty(), node.getOptional("field"));
+    }
+
+    @Test
+    public void otherValues() {
+        // Values that do not fit the compact representation are kept as strings
+        JmmNode node = new JmmNodeImpl("Identifier");
+        node.put("line", "unknown");
+        node.put("field", "maybe");
+        node.putInt("value", 10);
+
+        assertEquals("unknown", node.get("line"));
+        assertEquals("maybe", node.get("field"));
+        assertEquals("10", node.get("value"));
+
+        node.putInt("line", 4);
+        node.putBoolean("field", true);
+        assertEquals("4", node.get("line"));
+        assertEquals("true", node.get("field"));
+        assertEquals(3, node.getAttributes().size());
+    }
+
+    @Test
+    public void nullValues() {
+        JmmNode node = new JmmNodeImpl("Identifier");
+        node.put("array", "true");
+        node.putInt("line", 2);
+
+        node.put("array", null);
+        node.put("field", null);
+        node.put("line", null);
+
+        assertEquals(Optional.empty(), node.getOptional("array"));
+        assertEquals(Optional.empty(), node.getOptional("field"));
+        assertEquals(Optional.empty(), node.getOptional("line"));
+    }
+
+    @Test
+    public void parsedNodes() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+        var classDeclaration = root.getJmmChild(root.getNumChildren() - 1);
+
+        assertEquals(Integer.parseInt(classDeclaration.get("line")), classDeclaration.getInt("line"));
+        assertFalse(classDeclaration.getOptional("array").isPresent());
+        assertEquals(root.toJson(), root.sanitize().toJson());
+    }
+}
@@ -1,5 +1,10 @@
 package pt.up.fe.comp;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
 import org.junit.Test;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.specs.util.SpecsIo;
@@ -11,4 +16,29 @@ public class OptimizationTest {
         OllirResult ollirResult = TestUtils.optimize(SpecsIo.getResource("fixtures/public/HelloWorld.jmm"));
         TestUtils.noErrors(ollirResult);
     }
+
+    @Test
+    public void builderMatchesText() {
+        for (String fixture : new String[] { "FindMaximum", "Lazysort", "Life", "MonteCarloPi", "TicTacToe", "WhileAndIf" }) {
+            String code = SpecsIo.getResource("fixtures/public/" + fixture + ".jmm");
+
+            OllirResult textResult = TestUtils.optimize(code, Map.of("ollirFromText", "true"));
+            OllirResult builderResult = TestUtils.optimize(code);
+
+            assertEquals(fixture, TestUtils.backend(textResult).getJasminCode(),
+                    TestUtils.backend(builderResult).getJasminCode());
+        }
+    }
+
+    @Test
+    public void deterministicTemporaries() {
+        String code = SpecsIo.getResource("fixtures/public/Simple.jmm");
+
+        String firstOllir = TestUtils.optimize(code).getOllirCode();
+        TestUtils.optimize(SpecsIo.getResource("fixtures/public/FindMaximum.jmm"));
+        String secondOllir = TestUtils.optimize(code).getOllirCode();
+
+        assertEquals(firstOllir, secondOllir);
+        assertTrue(firstOllir.contains("t0.i32 :=.i32"));
+    }
 }
@@ -0,0 +1,65 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+public class ParallelAnalysisTest {
+
+    private static final Map<String, String> PARALLEL = Map.of(JmmAnalyser.PARALLEL_ANALYSIS, "true");
+
+    private static String analyse(String code, Map<String, String> config) {
+        var parserResult = new SimpleParser().parse(code, config);
+        return new JmmAnalyser().semanticAnalysis(parserResult).getReports().toString();
+    }
+
+    private static String assertSameAsSequential(String code) {
+        String sequential = analyse(code, Collections.emptyMap());
+        assertEquals(sequential, analyse(code, PARALLEL));
+        return sequential;
+    }
+
+    @Test
+    public void fixtures() {
+        for (String fixture : new String[] { "Life", "TicTacToe", "QuickSort", "Lazysort", "MonteCarloPi" }) {
+            assertSameAsSequential(SpecsIo.getResource("fixtures/public/" + fixture + ".jmm"));
+        }
+    }
+
+    @Test
+    public void semanticErrors() {
+        for (String fixture : new String[] { "arr_index_not_int", "badArguments", "binop_incomp", "funcNotFound",
+                "simple_length", "varNotInit", "var_exp_incomp", "var_lit_incomp", "var_undef" }) {
+            String reports = assertSameAsSequential(
+                    SpecsIo.getResource("fixtures/public/fail/semantic/" + fixture + ".jmm"));
+            assertFalse(fixture, reports.equals("[]"));
+        }
+    }
+
+    @Test
+    public void errorsInSeveralMethods() {
+        String code = "import io;\n"
+                + "class A extends B {\n"
+                + "    int a;\n"
+                + "    public int f(int x) {\n        return y;\n    }\n"
+                + "    public int g(int x) {\n        boolean b;\n        b = x + true;\n        return x;\n    }\n"
+                + "    public boolean h() {\n        return 1;\n    }\n"
+                + "    public static void main(String[] args) {\n        a = 1;\n    }\n"
+                + "}\n";
+
+        assertSameAsSequential(code);
+    }
+
+    @Test
+    public void generated() {
+        for (long seed = 0; seed < 5; seed++) {
+            assertSameAsSequential(new JmmProgramGenerator().setNumMethods(50).generate(seed));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class ParallelParserTest {
+
+    private static final Map<String, String> PARALLEL = Map.of(SimpleParser.PARALLEL_PARSE, "true");
+
+    private static String toString(JmmParserResult result) {
+        String tree = result.getRootNode() == null ? "" : result.getRootNode().toJson();
+        return tree + result.getReports();
+    }
+
+    private static void assertSameAsSequential(String code) {
+        var sequential = new SimpleParser().parse(code, Collections.emptyMap());
+        var parallel = new SimpleParser().parse(code, PARALLEL);
+
+        // The json has the line and column of every node
+        assertEquals(toString(sequential), toString(parallel));
+    }
+
+    @Test
+    public void fixtures() {
+        for (String fixture : new String[] { "Life", "TicTacToe", "QuickSort", "Lazysort", "MonteCarloPi" }) {
+            assertSameAsSequential(SpecsIo.getResource("fixtures/public/" + fixture + ".jmm"));
+        }
+    }
+
+    @Test
+    public void generated() {
+        for (long seed = 0; seed < 10; seed++) {
+            assertSameAsSequential(new JmmProgramGenerator().setNumMethods(20).generate(seed));
+        }
+    }
+
+    @Test
+    public void commentsAndTabs() {
+        String code = "import io;\n"
+                + "class A {\n"
+                + "\tint a; // public\n"
+                + "\t/* public int b() { */\n"
+                + "\tpublic int f(int x) {\n\t\treturn x;\n\t}\n"
+                + "// }\n"
+                + "\t\tpublic int g(int x) { return this.f(x); }\n"
+                + "\tpublic static void main(String[] args) {\n\t}\n"
+                + "}\n";
+
+        assertNotNull(new ParallelParser().parse(code));
+        assertSameAsSequential(code);
+    }
+
+    @Test
+    public void syntaxErrors() {
+        // The error reports come from the sequential parse
+        assertSameAsSequential("class A {\n\tpublic int f() {\n\t\treturn 1\n\t}\n\tpublic int g() {\n\t\treturn 2;\n\t}\n}");
+        assertSameAsSequential("class A {\n\tpublic int f() {\n\t\treturn 1;\n\t}\n\tint a;\n\tpublic int g() {\n\t\treturn 2;\n\t}\n}");
+    }
+
+    @Test
+    public void notSplit() {
+        // Two methods in the same line
+        assertNull(new ParallelParser().parse("class A {\n\tpublic int f() { return 1; } public int g() { return 2; }\n}"));
+    }
+}
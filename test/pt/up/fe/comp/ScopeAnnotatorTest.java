@@ -0,0 +1,55 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+
+public class ScopeAnnotatorTest {
+
+    private static JmmNode walkUp(JmmNode node, String... kinds) {
+        while (node != null && !Arrays.asList(kinds).contains(node.getKind())) {
+            node = node.getJmmParent();
+        }
+        return node;
+    }
+
+    private static int checkScopes(JmmNode node) {
+        assertSame(walkUp(node, "InstanceMethod", "MainMethod"), node.getEnclosingMethod());
+        assertSame(walkUp(node, "ClassDeclaration"), node.getEnclosingClass());
+
+        int count = 1;
+        for (var child : node.getChildrenView()) {
+            count += checkScopes(child);
+        }
+        return count;
+    }
+
+    @Test
+    public void sameAsParentWalk() {
+        String code = new JmmProgramGenerator().setNumMethods(10).setNumFields(3).generate(3);
+        var root = new SimpleParser().parse(code, Collections.emptyMap()).getRootNode();
+
+        new ScopeAnnotator().visit(root);
+
+        assertTrue(checkScopes(root) > 100);
+    }
+
+    @Test
+    public void notAnnotated() {
+        JmmNode method = new JmmNodeImpl("MainMethod");
+        JmmNode statement = new JmmNodeImpl("AssignmentStatement");
+        method.add(statement);
+
+        // Falls back to going through the ancestors
+        assertSame(method, statement.getEnclosingMethod());
+        assertNull(statement.getEnclosingClass());
+    }
+}
@@ -0,0 +1,92 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+public class TypeAnnotatorTest {
+
+    private static JmmNode analyse(String code) {
+        var parserResult = new SimpleParser().parse(code, Collections.emptyMap());
+        var semanticsResult = new JmmAnalyser().semanticAnalysis(parserResult);
+        assertTrue(semanticsResult.getReports().toString(), semanticsResult.getReports().isEmpty());
+        return semanticsResult.getRootNode();
+    }
+
+    private static List<JmmNode> find(JmmNode node, String kind) {
+        List<JmmNode> found = new ArrayList<>();
+        if (node.getKind().equals(kind)) {
+            found.add(node);
+        }
+        for (var child : node.getChildrenView()) {
+            found.addAll(find(child, kind));
+        }
+        return found;
+    }
+
+    @Test
+    public void expressions() {
+        var root = analyse("import io;\n"
+                + "class A {\n"
+                + "    int[] a;\n"
+                + "    public int foo(int x) {\n"
+                + "        boolean b;\n"
+                + "        b = x < a.length && !false;\n"
+                + "        a[x] = this.foo(a[0] + 1);\n"
+                + "        io.println(x);\n"
+                + "        return x;\n"
+                + "    }\n"
+                + "}");
+
+        var assignments = find(root, "AssignmentStatement");
+
+        var and = assignments.get(0).getJmmChild(1);
+        assertSame(TypeAnnotator.BOOLEAN, and.getExpressionType());
+        assertSame(TypeAnnotator.BOOLEAN, and.getJmmChild(0).getExpressionType());
+        assertSame(TypeAnnotator.INT, and.getJmmChild(0).getJmmChild(1).getExpressionType());
+        assertSame(TypeAnnotator.BOOLEAN, and.getJmmChild(1).getExpressionType());
+
+        var index = assignments.get(1).getJmmChild(0);
+        assertSame(TypeAnnotator.INT_ARRAY, index.getJmmChild(0).getExpressionType());
+
+        var call = assignments.get(1).getJmmChild(1);
+        assertSame(TypeAnnotator.INT, call.getExpressionType());
+        var argument = call.getJmmChild(2).getJmmChild(0);
+        assertSame(TypeAnnotator.INT, argument.getExpressionType());
+        assertSame(TypeAnnotator.INT, argument.getJmmChild(0).getExpressionType());
+
+        // Calls to imported classes have no known type
+        var println = find(root, "CallExpression").get(1);
+        assertEquals(new Type("io", false), println.getJmmChild(0).getExpressionType());
+        assertNull(println.getExpressionType());
+    }
+
+    @Test
+    public void fieldsNotVisibleInMain() {
+        var parserResult = new SimpleParser().parse("class A {\n"
+                + "    int a;\n"
+                + "    public static void main(String[] args) {\n"
+                + "        a = 1;\n"
+                + "    }\n"
+                + "    public int foo() {\n"
+                + "        a = 2;\n"
+                + "        return a;\n"
+                + "    }\n"
+                + "}", Collections.emptyMap());
+        var root = new JmmAnalyser().semanticAnalysis(parserResult).getRootNode();
+
+        var assignments = find(root, "AssignmentStatement");
+        assertNull(assignments.get(0).getJmmChild(0).getExpressionType());
+        assertSame(TypeAnnotator.INT, assignments.get(1).getJmmChild(0).getExpressionType());
+    }
+}
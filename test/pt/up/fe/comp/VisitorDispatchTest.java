@@ -0,0 +1,88 @@
+package pt.up.fe.comp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.JmmNodeKinds;
+import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class VisitorDispatchTest {
+
+    private static int count(JmmNode node, String kind) {
+        int count = node.getKind().equals(kind) ? 1 : 0;
+        for (var child : node.getChildren()) {
+            count += count(child, kind);
+        }
+        return count;
+    }
+
+    @Test
+    public void kindIds() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+
+        assertEquals(JmmNodeKinds.getId("Start"), root.getKindId());
+        assertEquals("Start", JmmNodeKinds.getKind(root.getKindId()));
+        assertEquals(root.getKindId(), new JmmNodeImpl("Start").getKindId());
+        assertEquals(root.getKindId(), root.sanitize().getKindId());
+    }
+
+    @Test
+    public void addVisitAfterVisiting() {
+        var visitor = new AJmmVisitor<Object, String>() {
+        };
+        visitor.setDefaultVisit((node, data) -> "default");
+
+        JmmNode node = new JmmNodeImpl("SomeNewKind");
+        assertEquals("default", visitor.visit(node));
+
+        visitor.addVisit("SomeNewKind", (n, data) -> "new");
+        assertEquals("new", visitor.visit(node));
+
+        visitor.setDefaultVisit((n, data) -> "other");
+        assertEquals("other", visitor.visit(new JmmNodeImpl("AnotherNewKind")));
+    }
+
+    @Test
+    public void preorderCount() {
+        var root = new SimpleParser().parse(SpecsIo.getResource("fixtures/public/Life.jmm"), Collections.emptyMap())
+                .getRootNode();
+
+        int[] identifiers = { 0 };
+        var visitor = new PreorderJmmVisitor<Object, Object>();
+        visitor.addVisit("Identifier", (node, data) -> identifiers[0]++);
+        visitor.visit(root);
+
+        assertEquals(count(root, "Identifier"), identifiers[0]);
+    }
+
+    @Test
+    public void childrenView() {
+        JmmNode parent = new JmmNodeImpl("Parent");
+        var view = parent.getChildrenView();
+
+        parent.add(new JmmNodeImpl("A"));
+        parent.add(new JmmNodeImpl("B"));
+
+        // The view reflects changes to the node
+        assertEquals(2, view.size());
+        assertEquals("B", parent.getJmmChild(1).getKind());
+        assertSame(view, parent.getChildrenView());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void childrenViewIsReadOnly() {
+        JmmNode parent = new JmmNodeImpl("Parent");
+        parent.add(new JmmNodeImpl("A"));
+
+        parent.getChildrenView().remove(0);
+    }
+}
@@ -0,0 +1,135 @@
+package pt.up.fe.comp.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pt.up.fe.comp.CompilationResult;
+import pt.up.fe.comp.JmmCompiler;
+import pt.up.fe.specs.util.SpecsIo;
+
+public class CompilationCacheTest {
+
+    private static File newCacheDir() {
+        File cacheDir = SpecsIo.mkdir(SpecsIo.getTempFolder("jmm-cache-test"), "cache");
+        SpecsIo.deleteFolderContents(cacheDir);
+        return cacheDir;
+    }
+
+    @Test
+    public void hitAfterMiss() {
+        File cacheDir = newCacheDir();
+        String code = SpecsIo.getResource("fixtures/public/HelloWorld.jmm");
+        Map<String, String> config = new HashMap<>();
+        config.put(JmmCompiler.KEEP_INTERMEDIATE, "true");
+
+        CompilationResult compiled = new CompilationCache(cacheDir, 1024 * 1024).compile(code, config);
+
+        // A new instance, as if in another process
+        var cache = new CompilationCache(cacheDir, 1024 * 1024);
+        CompilationResult cached = cache.compile(code, config);
+
+        assertEquals(1L, (long) cache.getStats().get("hits"));
+        assertEquals(compiled.getClassName(), cached.getClassName());
+        assertArrayEquals(compiled.getClassBytes(), cached.getClassBytes());
+        assertEquals(compiled.getJasminCode(), cached.getJasminCode());
+        assertNotNull(cached.getOllirCode());
+    }
+
+    @Test
+    public void replacedEntryCountedOnce() {
+        File cacheDir = newCacheDir();
+        String code = SpecsIo.getResource("fixtures/public/HelloWorld.jmm");
+        Map<String, String> config = new HashMap<>();
+
+        var cache = new CompilationCache(cacheDir, 1024 * 1024);
+        cache.compile(code, config);
+
+        // The entry has no intermediate code, so it is compiled and stored again
+        config.put(JmmCompiler.KEEP_INTERMEDIATE, "true");
+        cache.compile(code, config);
+        assertEquals(2L, (long) cache.getStats().get("stores"));
+
+        assertEquals(new CompilationCache(cacheDir, 1024 * 1024).getStats().get("bytes"),
+                cache.getStats().get("bytes"));
+    }
+
+    @Test
+    public void corruptEntryIsMiss() throws IOException {
+        File cacheDir = newCacheDir();
+        String code = SpecsIo.getResource("fixtures/public/HelloWorld.jmm");
+
+        CompilationResult compiled = new CompilationCache(cacheDir, 1024 * 1024).compile(code, new HashMap<>());
+
+        // The length of the class name is far larger than the entry
+        File entry = SpecsIo.getFilesRecursive(cacheDir, "entry").get(0);
+        try (var output = new DataOutputStream(Files.newOutputStream(entry.toPath()))) {
+            output.writeInt(1);
+            output.writeInt(Integer.MAX_VALUE);
+        }
+
+        var cache = new CompilationCache(cacheDir, 1024 * 1024);
+        CompilationResult recompiled = cache.compile(code, new HashMap<>());
+
+        assertEquals(1L, (long) cache.getStats().get("misses"));
+        assertArrayEquals(compiled.getClassBytes(), recompiled.getClassBytes());
+    }
+
+    @Test
+    public void keyDependsOnConfig() {
+        String code = SpecsIo.getResource("fixtures/public/HelloWorld.jmm");
+
+        Map<String, String> config = new HashMap<>();
+        config.put("inputFile", "a.jmm");
+        String key = CompilationCache.getKey(code, config);
+
+        config.put("inputFile", "b.jmm");
+        assertEquals(key, CompilationCache.getKey(code, config));
+
+        config.put("optimize", "true");
+        assertNotEquals(key, CompilationCache.getKey(code, config));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws InterruptedException {
+        String first = SpecsIo.getResource("fixtures/public/HelloWorld.jmm");
+        String second = SpecsIo.getResource("fixtures/public/FindMaximum.jmm");
+        String third = SpecsIo.getResource("fixtures/public/WhileAndIf.jmm");
+
+        // Size of the three entries
+        var sizes = new CompilationCache(newCacheDir(), Long.MAX_VALUE);
+        for (String code : new String[] { first, second, third }) {
+            sizes.compile(code, new HashMap<>());
+        }
+        long maxBytes = sizes.getStats().get("bytes") - 1;
+
+        var cache = new CompilationCache(newCacheDir(), maxBytes);
+        cache.compile(first, new HashMap<>());
+        Thread.sleep(20);
+        cache.compile(second, new HashMap<>());
+        Thread.sleep(20);
+        cache.compile(first, new HashMap<>());
+        Thread.sleep(20);
+        cache.compile(third, new HashMap<>());
+
+        assertEquals(1L, (long) cache.getStats().get("evictions"));
+        assertTrue(cache.getStats().get("bytes") <= maxBytes);
+
+        // The second was the least recently used
+        cache.compile(first, new HashMap<>());
+        assertEquals(2L, (long) cache.getStats().get("hits"));
+        cache.compile(second, new HashMap<>());
+        assertEquals(2L, (long) cache.getStats().get("hits"));
+    }
+}
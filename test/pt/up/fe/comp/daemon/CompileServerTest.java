@@ -0,0 +1,121 @@
+package pt.up.fe.comp.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+public class CompileServerTest {
+
+    @Test
+    public void compileAndStats() {
+        File outputDir = SpecsIo.mkdir(SpecsIo.getTempFolder("jmm-server-test"), "classes");
+
+        try (CompileServer server = CompileServer.start(CompileServer.getTcpAddress(0), 2, 4)) {
+            var client = new CompileClient(server.getAddress());
+
+            List<String> success = client.compile(new File("test/fixtures/public/HelloWorld.jmm"), outputDir, false);
+            assertTrue(success.toString(), CompileClient.isSuccess(success));
+            assertTrue(new File(outputDir, "HelloWorld.class").isFile());
+
+            List<String> failure = client.compile(new File("test/fixtures/public/cp2/ArrayAccessOnInt.jmm"), outputDir,
+                    false);
+            assertFalse(CompileClient.isSuccess(failure));
+            assertTrue(failure.get(0).startsWith(CompileServer.REPORT));
+
+            List<String> stats = client.stats();
+            assertTrue(CompileClient.isSuccess(stats));
+            assertTrue(stats.contains("received=2"));
+            assertTrue(stats.contains("succeeded=1"));
+            assertTrue(stats.contains("failed=1"));
+
+            assertEquals(List.of(CompileServer.OK), client.shutdown());
+            server.awaitTermination();
+        }
+    }
+
+    @Test
+    public void idleClientDoesNotBlockOthers() throws IOException {
+        try (CompileServer server = CompileServer.start(CompileServer.getTcpAddress(0), 1, 1);
+                SocketChannel idle = SocketChannel.open(server.getAddress())) {
+            // The idle connection never sends its request
+            assertTrue(idle.isConnected());
+
+            assertTrue(CompileClient.isSuccess(new CompileClient(server.getAddress()).stats()));
+        }
+    }
+
+    @Test
+    public void busyWhenAllReadersWait() throws IOException {
+        // One compilation thread and a queue of one: two readers and one waiting connection
+        try (CompileServer server = CompileServer.start(CompileServer.getTcpAddress(0), 1, 1);
+                SocketChannel first = SocketChannel.open(server.getAddress());
+                SocketChannel second = SocketChannel.open(server.getAddress());
+                SocketChannel third = SocketChannel.open(server.getAddress())) {
+
+            List<String> response = new CompileClient(server.getAddress()).stats();
+            assertTrue(response.toString(), response.get(0).startsWith(CompileServer.BUSY));
+        }
+    }
+
+    @Test
+    public void longRequestIsRejected() throws IOException {
+        try (CompileServer server = CompileServer.start(CompileServer.getTcpAddress(0), 1, 1);
+                SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            channel.write(ByteBuffer.wrap("x".repeat(CompileServer.MAX_REQUEST_LENGTH + 1)
+                    .getBytes(StandardCharsets.UTF_8)));
+
+            // The server closes the connection without waiting for the end of the line
+            var reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                    StandardCharsets.UTF_8));
+            assertEquals(null, reader.readLine());
+        }
+    }
+
+    @Test
+    public void keepsFileThatIsNotSocket() {
+        File file = new File(SpecsIo.getTempFolder("jmm-server-test"), "not-a-socket");
+        SpecsIo.write(file, "contents");
+
+        try {
+            CompileServer.start(UnixDomainSocketAddress.of(file.toPath()), 1, 1).close();
+            fail("Expected the server not to start");
+        } catch (RuntimeException e) {
+            assertEquals("contents", SpecsIo.read(file));
+        }
+    }
+
+    @Test
+    public void replacesStaleSocketFile() throws IOException {
+        File socketFile = new File(SpecsIo.getTempFolder("jmm-server-test"), "stale.sock");
+        socketFile.delete();
+        var address = UnixDomainSocketAddress.of(socketFile.toPath());
+
+        // Closing the channel leaves the socket file behind, as a server that did not shut down cleanly
+        try (var stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(address);
+        }
+        assertTrue(socketFile.exists());
+
+        try (CompileServer server = CompileServer.start(address, 1, 1)) {
+            assertTrue(CompileClient.isSuccess(new CompileClient(server.getAddress()).stats()));
+        }
+    }
+}